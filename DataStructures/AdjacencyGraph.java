@@ -0,0 +1,41 @@
+/*
+ * Read-only view of a graph's outgoing adjacency, shared by every graph representation
+ * so that the graph algorithms don't depend on how the edges are stored.
+ *
+ * Nodes are numbered from 0 to nodes(); one-indexed graphs simply leave node 0 without
+ * edges. Neighbours are visited through a Cursor, which is created once and then reset
+ * for every node, so walking the edges of a graph does not allocate:
+ *
+ *      AdjacencyGraph.Cursor cursor = graph.cursor();
+ *      cursor.reset(node);
+ *      while (cursor.next()) {
+ *          visit(cursor.node(), cursor.weight());
+ *      }
+ *
+ * Unweighted graphs report a weight of 1 for every edge.
+ */
+
+package DataStructures;
+
+public interface AdjacencyGraph {
+    public interface Cursor {
+        // Position the cursor before the first outgoing edge of a node
+        void reset(int node);
+
+        // Move to the next outgoing edge, return false once all of them are visited
+        boolean next();
+
+        // Head node and weight of the current edge
+        int node();
+        int weight();
+    }
+
+    int nodes();
+
+    boolean isWeighted();
+
+    // Number of outgoing edges of a node
+    int degree(int node);
+
+    Cursor cursor();
+}
@@ -0,0 +1,70 @@
+/*
+ * Atomic operations on the elements of a plain int[] through a VarHandle, so that arrays
+ * shared between threads (e.g. the distances of a parallel shortest path search) don't have
+ * to be wrapped in an AtomicIntegerArray and can be handed out as ordinary arrays.
+ *
+ * A key and a payload (e.g. a distance and the node it came from) can also be packed into
+ * one long, key in the upper half, so that minimizeKey() changes both together.
+ */
+
+package DataStructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+public class AtomicIntArrays {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private AtomicIntArrays() {}
+
+    public static int get(int[] array, int index) {
+        return (int) INTS.getVolatile(array, index);
+    }
+
+    public static void set(int[] array, int index, int value) {
+        INTS.setVolatile(array, index, value);
+    }
+
+    // Add one to an element and return its new value
+    public static int increment(int[] array, int index) {
+        return (int) INTS.getAndAdd(array, index, 1) + 1;
+    }
+
+    // Lower an element to the given value if that is smaller, and return true if it was
+    // lowered by this call
+    public static boolean minimize(int[] array, int index, int value) {
+        int current = (int) INTS.getVolatile(array, index);
+        while (value < current) {
+            int witness = (int) INTS.compareAndExchange(array, index, current, value);
+            if (witness == current) return true;
+            current = witness;
+        }
+        return false;
+    }
+
+    public static long pack(int key, int payload) {
+        return ((long) key << 32) | (payload & 0xFFFFFFFFL);
+    }
+
+    public static int key(long pair) {
+        return (int) (pair >> 32);
+    }
+
+    public static int payload(long pair) {
+        return (int) pair;
+    }
+
+    // Replace a packed pair if the given key is smaller than its key, and return true if it
+    // was replaced by this call. Equal keys keep the old payload.
+    public static boolean minimizeKey(long[] array, int index, int key, int payload) {
+        long current = (long) LONGS.getVolatile(array, index);
+        long pair = pack(key, payload);
+        while (key < key(current)) {
+            long witness = (long) LONGS.compareAndExchange(array, index, current, pair);
+            if (witness == current) return true;
+            current = witness;
+        }
+        return false;
+    }
+}
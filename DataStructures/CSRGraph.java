@@ -0,0 +1,293 @@
+/*
+ * An immutable directed graph in compressed sparse row (CSR) form.
+ *
+ * All edges live in flat primitive arrays, grouped by their tail node:
+ *      offsets[node] ... offsets[node + 1] - 1     edge indices leaving a node
+ *      targets[edge]                               head node of an edge
+ *      weights[edge]                               weight of an edge (null if unweighted)
+ * That is 4 bytes per edge (8 with weights) plus 4 bytes per node, with no per-edge
+ * objects and no pointer chasing while walking the neighbours of a node.
+ *
+ * Nodes are numbered from 0 to nodes(), so both the zero-indexed DirectedGraph and the
+ * one-indexed weighted graphs can be converted with from(). Edges can either be read by
+ * index (firstEdge/endEdge/target/weight) or through the AdjacencyGraph cursor.
+ *
+ * The transpose (every edge reversed) of any graph is built in parallel by transpose():
+ *      1. Source nodes are split into chunks with about the same number of edges, and
+ *         every chunk counts the in-degrees of the heads it sees in its own histogram.
+ *      2. The histograms are prefix-summed, node by node and chunk by chunk, into the
+ *         CSR offsets of the transpose and the first free slot of every chunk.
+ *      3. Every chunk scatters its edges into those slots.
+ * Chunks are processed in node order, so every in-list lists its sources in increasing
+ * order, exactly like a sequential transpose. The number of chunks is capped so that the
+ * histograms never take more memory than the edges themselves.
+ */
+
+package DataStructures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class CSRGraph implements AdjacencyGraph {
+    private final int nodes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private volatile CSRGraph inEdges;     // transpose, computed on first use
+
+    public CSRGraph(int nodes, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != nodes + 2 || offsets[nodes + 1] != targets.length) {
+            throw new IllegalArgumentException("Offsets do not match the given nodes and edges");
+        }
+        if (weights != null && weights.length != targets.length) {
+            throw new IllegalArgumentException("Weights do not match the given edges");
+        }
+        this.nodes = nodes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Collects edges in any order and sorts them by tail node in build()
+    public static class Builder {
+        private final int nodes;
+        private final boolean weighted;
+        private int[] tails, heads, weights;
+        private int edges;
+
+        public Builder(int nodes, boolean weighted) {
+            this.nodes = nodes;
+            this.weighted = weighted;
+            tails = new int[16];
+            heads = new int[16];
+            weights = weighted ? new int[16] : null;
+        }
+
+        public Builder addEdge(int tail, int head) {
+            return addEdge(tail, head, 1);
+        }
+
+        public Builder addEdge(int tail, int head, int weight) {
+            if (tail < 0 || tail > nodes || head < 0 || head > nodes) {
+                throw new IndexOutOfBoundsException("Edge " + tail + " -> " + head + " is outside the graph");
+            }
+            if (edges == tails.length) {
+                int capacity = edges + (edges >> 1);
+                tails = Arrays.copyOf(tails, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                if (weighted) weights = Arrays.copyOf(weights, capacity);
+            }
+            tails[edges] = tail;
+            heads[edges] = head;
+            if (weighted) weights[edges] = weight;
+            edges++;
+            return this;
+        }
+
+        public CSRGraph build() {
+            // Counting sort by tail node, keeping the insertion order of every node's edges
+            int[] offsets = new int[nodes + 2];
+            for (int i = 0; i < edges; i++) {
+                offsets[tails[i] + 1]++;
+            }
+            for (int node = 0; node <= nodes; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            int[] fill = Arrays.copyOf(offsets, nodes + 1);
+            int[] targets = new int[edges];
+            int[] sortedWeights = weighted ? new int[edges] : null;
+            for (int i = 0; i < edges; i++) {
+                int slot = fill[tails[i]]++;
+                targets[slot] = heads[i];
+                if (weighted) sortedWeights[slot] = weights[i];
+            }
+            return new CSRGraph(nodes, offsets, targets, sortedWeights);
+        }
+    }
+
+    // Convert any other graph representation, copying its edges in cursor order
+    public static CSRGraph from(AdjacencyGraph graph) {
+        int nodes = graph.nodes();
+        int[] offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            offsets[node + 1] = offsets[node] + graph.degree(node);
+        }
+
+        int[] targets = new int[offsets[nodes + 1]];
+        int[] weights = graph.isWeighted() ? new int[targets.length] : null;
+        AdjacencyGraph.Cursor cursor = graph.cursor();
+        for (int node = 0; node <= nodes; node++) {
+            int edge = offsets[node];
+            cursor.reset(node);
+            while (cursor.next()) {
+                targets[edge] = cursor.node();
+                if (weights != null) weights[edge] = cursor.weight();
+                edge++;
+            }
+        }
+        return new CSRGraph(nodes, offsets, targets, weights);
+    }
+
+    // Build the transpose of any graph with a parallel counting sort
+    public static CSRGraph transpose(AdjacencyGraph graph) {
+        int nodes = graph.nodes();
+        boolean weighted = graph.isWeighted();
+
+        // Split the source nodes into chunks of roughly equal edge counts
+        long[] degreeSums = new long[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            degreeSums[node + 1] = degreeSums[node] + graph.degree(node);
+        }
+        long edges = degreeSums[nodes + 1];
+        if (edges > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph has too many edges for a CSRGraph");
+        }
+        int chunks = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), edges / (nodes + 1)));
+        int[] bounds = new int[chunks + 1];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long target = edges * chunk / chunks;
+            int node = Arrays.binarySearch(degreeSums, target);
+            if (node < 0) node = -node - 1;
+            bounds[chunk] = Math.max(bounds[chunk - 1], Math.min(node, nodes + 1));
+        }
+        bounds[chunks] = nodes + 1;
+
+        // Every chunk counts the in-degrees of its edges
+        int[][] counts = new int[chunks][nodes + 1];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] count = counts[chunk];
+            AdjacencyGraph.Cursor cursor = graph.cursor();
+            for (int node = bounds[chunk]; node < bounds[chunk + 1]; node++) {
+                cursor.reset(node);
+                while (cursor.next()) count[cursor.node()]++;
+            }
+        });
+
+        // Prefix sums: offsets of the transpose, then the first slot of every chunk
+        int[] offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            int total = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                total += counts[chunk][node];
+            }
+            offsets[node + 1] = offsets[node] + total;
+        }
+        IntStream.range(0, nodes + 1).parallel().forEach(node -> {
+            int slot = offsets[node];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = counts[chunk][node];
+                counts[chunk][node] = slot;
+                slot += count;
+            }
+        });
+
+        // Every chunk scatters its edges into their slots
+        int[] targets = new int[(int) edges];
+        int[] weights = weighted ? new int[(int) edges] : null;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] slots = counts[chunk];
+            AdjacencyGraph.Cursor cursor = graph.cursor();
+            for (int node = bounds[chunk]; node < bounds[chunk + 1]; node++) {
+                cursor.reset(node);
+                while (cursor.next()) {
+                    int slot = slots[cursor.node()]++;
+                    targets[slot] = node;
+                    if (weighted) weights[slot] = cursor.weight();
+                }
+            }
+        });
+        return new CSRGraph(nodes, offsets, targets, weights);
+    }
+
+    // The incoming edges of every node, computed once and cached
+    public CSRGraph inEdges() {
+        CSRGraph result = inEdges;
+        if (result == null) {
+            result = transpose(this);
+            result.inEdges = this;
+            inEdges = result;
+        }
+        return result;
+    }
+
+    public int nodes() { return this.nodes; }
+    public int edges() { return this.targets.length; }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Index of the first edge leaving a node
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    // Index one past the last edge leaving a node
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int weight(int edge) {
+        return weights == null ? 1 : weights[edge];
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private int edge, end;
+
+            public void reset(int node) {
+                edge = offsets[node] - 1;
+                end = offsets[node + 1];
+            }
+
+            public boolean next() {
+                return ++edge < end;
+            }
+
+            public int node() {
+                return targets[edge];
+            }
+
+            public int weight() {
+                return weights == null ? 1 : weights[edge];
+            }
+        };
+    }
+
+    public void printGraph() {
+        for (int node = 0; node <= nodes; node++) {
+            if (degree(node) == 0) continue;
+            System.out.print(node + " -> ");
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                System.out.print(targets[edge]);
+                if (weights != null) System.out.print("(" + weights[edge] + ")");
+                System.out.print(" ");
+            }
+            System.out.println();
+        }
+    }
+
+    public static void main(String[] args) {
+        long startTime, stopTime;
+        int nodes = 200;
+        String filename = "dijkstradata.txt";
+        WeightedDirectedGraph graph = new WeightedDirectedGraph(nodes, filename);
+
+        startTime = System.currentTimeMillis();
+        CSRGraph csr = CSRGraph.from(graph);
+        stopTime = System.currentTimeMillis();
+
+        System.out.println("Converting the graph took: " + (stopTime - startTime) + " ms");
+        csr.printGraph();
+    }
+}
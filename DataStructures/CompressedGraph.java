@@ -0,0 +1,180 @@
+/*
+ * A read-only directed graph whose adjacency lists are gap-encoded with variable-length
+ * integers.
+ *
+ * Every adjacency list is sorted and stored in one shared byte array as
+ *      [degree] [first neighbour - node] [gap] [gap] ...
+ * where the first neighbour is stored relative to the node itself (zig-zag encoded, since
+ * it may be smaller) and every following neighbour as the gap to the previous one. Each
+ * number is written as a varint: 7 bits per byte, with the high bit set on every byte but
+ * the last. Graphs with locality (neighbour IDs close to the node and to each other) need
+ * one or two bytes per edge instead of four.
+ *
+ * Lists are decoded on the fly by the AdjacencyGraph cursor, so the graph can be used
+ * directly by Kosaraju and the other traversals. Edge weights are not stored (every edge
+ * has weight 1), and the compressed data is limited to 2^31 bytes.
+ */
+
+package DataStructures;
+
+import java.util.Arrays;
+
+public class CompressedGraph implements AdjacencyGraph {
+    private final int nodes;
+    private final long edges;
+    private final int[] offsets;    // start of every node's list in the data array
+    private final byte[] data;
+
+    private CompressedGraph(int nodes, long edges, int[] offsets, byte[] data) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    // Sort and compress the adjacency lists of any other graph representation
+    public static CompressedGraph from(AdjacencyGraph graph) {
+        int nodes = graph.nodes();
+        int[] offsets = new int[nodes + 1];
+        byte[] data = new byte[Math.max(16, nodes * 2)];
+        int length = 0;
+        long edges = 0;
+
+        int[] neighbours = new int[16];
+        AdjacencyGraph.Cursor cursor = graph.cursor();
+        for (int node = 0; node <= nodes; node++) {
+            // Collect and sort the list of this node
+            int degree = 0;
+            cursor.reset(node);
+            while (cursor.next()) {
+                if (degree == neighbours.length) {
+                    neighbours = Arrays.copyOf(neighbours, degree * 2);
+                }
+                neighbours[degree++] = cursor.node();
+            }
+            Arrays.sort(neighbours, 0, degree);
+            edges += degree;
+
+            // Worst case is 5 bytes per number
+            int needed = length + 5 * (degree + 1);
+            if (needed < 0) {
+                throw new IllegalArgumentException("Compressed graph exceeds 2^31 bytes");
+            }
+            if (needed > data.length) {
+                data = Arrays.copyOf(data, Math.max(needed, data.length + (data.length >> 1)));
+            }
+
+            offsets[node] = length;
+            length = writeVarint(data, length, degree);
+            int previous = node;
+            for (int i = 0; i < degree; i++) {
+                int value = (i == 0) ? zigzag(neighbours[i] - node) : neighbours[i] - previous;
+                length = writeVarint(data, length, value);
+                previous = neighbours[i];
+            }
+        }
+        return new CompressedGraph(nodes, edges, offsets, Arrays.copyOf(data, length));
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    public int nodes() { return this.nodes; }
+    public long edges() { return this.edges; }
+
+    // Size of the compressed adjacency in bytes
+    public long bytes() {
+        return data.length + (long) offsets.length * Integer.BYTES;
+    }
+
+    public boolean isWeighted() {
+        return false;
+    }
+
+    public int degree(int node) {
+        // The degree is the first varint of the list
+        int position = offsets[node];
+        int value = 0, shift = 0;
+        byte current;
+        do {
+            current = data[position++];
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return value;
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private int position, remaining, current;
+            private boolean first;
+
+            private int readVarint() {
+                int value = 0, shift = 0;
+                byte next;
+                do {
+                    next = data[position++];
+                    value |= (next & 0x7F) << shift;
+                    shift += 7;
+                } while (next < 0);
+                return value;
+            }
+
+            public void reset(int node) {
+                position = offsets[node];
+                remaining = readVarint();
+                current = node;
+                first = true;
+            }
+
+            public boolean next() {
+                if (remaining == 0) return false;
+                remaining--;
+                if (first) {
+                    current += unzigzag(readVarint());
+                    first = false;
+                } else {
+                    current += readVarint();
+                }
+                return true;
+            }
+
+            public int node() {
+                return current;
+            }
+
+            public int weight() {
+                return 1;
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        int nodes = Integer.parseInt(args[1]);
+        DirectedGraph graph = new DirectedGraph(filename, nodes);
+
+        long start, stop;
+        start = System.currentTimeMillis();
+        CompressedGraph compressed = CompressedGraph.from(graph);
+        stop = System.currentTimeMillis();
+
+        long plain = (long) (nodes + 2) * Integer.BYTES + compressed.edges() * Integer.BYTES;
+        System.out.println("Compressing the graph took: " + (stop - start) + " ms");
+        System.out.println("CSR size: " + plain + " bytes, compressed size: " + compressed.bytes() + " bytes");
+    }
+}
@@ -3,24 +3,26 @@
  * Graph contains nodes and integers and edges are stores as an array
  * of ArrayList.
  * Only stores the outgoing adjacency list and not the incoming one.
+ *
+ * One extra (always empty) list is kept at index N so that the graph can be read
+ * through the AdjacencyGraph interface, which numbers nodes from 0 to nodes().
  */
 
 package DataStructures;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
-public class DirectedGraph {
+public class DirectedGraph implements AdjacencyGraph {
     private int nodes, edges;
     private ArrayList<Integer>[] adjList;
+    private CSRGraph inEdges;   // cached transpose, dropped whenever an edge is added
 
     public DirectedGraph(int N) {
         this.nodes = N;
         this.edges = 0;
-        adjList = (ArrayList<Integer>[]) new ArrayList[N];
-        for (int i = 0; i < N; i++) {
+        adjList = (ArrayList<Integer>[]) new ArrayList[N + 1];
+        for (int i = 0; i <= N; i++) {
             adjList[i] = new ArrayList<>();
         }
     }
@@ -32,40 +34,22 @@ public class DirectedGraph {
         this.nodes = N;
         this.edges = 0;
 
-        // Load raw string data into StringBuilder
-        final int MAX_BUFFER_SIZE = 1024 * 4;
-        StringBuilder builder = new StringBuilder();
-        char[] buffer = new char[MAX_BUFFER_SIZE];
-        int readChars;
-
-        try (BufferedReader scanner = new BufferedReader(new FileReader(filename))) {
-            while ((readChars = scanner.read(buffer, 0, MAX_BUFFER_SIZE)) > 0) {
-                builder.append(buffer, 0, readChars);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
         // Initialize Adjacency list
-        adjList = (ArrayList<Integer>[]) new ArrayList[nodes];
-        for (int i = 0; i < nodes; i++) {
+        adjList = (ArrayList<Integer>[]) new ArrayList[nodes + 1];
+        for (int i = 0; i <= nodes; i++) {
             adjList[i] = new ArrayList<>();
         }
 
-        // Parse the StringBuilder to construct the adjacency list
-        int node[] = new int[2];
-        int i = 0, j = 0, k = 0;
-        for (; i < builder.length(); i++) {
-            if (builder.charAt(i) == ' ') {
-                node[k++] = Integer.parseInt(builder.substring(j, i));
-                j = i + 1;
-            } else if (builder.charAt(i) == '\n') {
-                k = 0;
-                adjList[node[0]].add(node[1]);
-                j = i + 1;
+        // Stream the integers straight from the file bytes, two per edge
+        try (IntParser parser = new IntParser(filename)) {
+            while (parser.next()) {
+                int tail = parser.value();
+                if (!parser.next()) break;
+                addEdge(tail, parser.value());
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        adjList[node[0]].add(node[1]);
     }
 
     public int nodes() { return this.nodes; }
@@ -75,9 +59,51 @@ public class DirectedGraph {
         return this.adjList[node];
     }
 
+    public boolean isWeighted() {
+        return false;
+    }
+
+    public int degree(int node) {
+        return this.adjList[node].size();
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private ArrayList<Integer> list;
+            private int index;
+
+            public void reset(int node) {
+                list = adjList[node];
+                index = -1;
+            }
+
+            public boolean next() {
+                return ++index < list.size();
+            }
+
+            public int node() {
+                return list.get(index);
+            }
+
+            public int weight() {
+                return 1;
+            }
+        };
+    }
+
     public void addEdge(int node1, int node2) {
         adjList[node1].add(node2);
         edges++;
+        inEdges = null;
+    }
+
+    // The incoming edges of every node as a primitive CSR graph, built with a parallel
+    // counting sort on first use and cached until the graph changes
+    public CSRGraph inEdges() {
+        if (inEdges == null) {
+            inEdges = CSRGraph.transpose(this);
+        }
+        return inEdges;
     }
 
     public void printGraph() {
@@ -0,0 +1,242 @@
+/*
+ * On-disk store for the results of an all-pairs shortest path run, served from a memory
+ * mapping like MappedGraph, so that later jobs can look distances up without computing
+ * them again or loading the matrix onto the heap.
+ *
+ * File layout (all values little-endian):
+ *      Header (32 bytes)
+ *          int     magic number "DIST"
+ *          int     format version
+ *          int     flags (reserved)
+ *          int     number of nodes N (rows and columns are numbered 1 ... N)
+ *          long    byte position of the row table
+ *          long    reserved
+ *      Rows        one record per source, in the order they were written:
+ *                      int     DENSE or SPARSE
+ *                      DENSE:  N ints, the distances to nodes 1 ... N
+ *                      SPARSE: int count, then count pairs of ints (node, distance) for
+ *                              the reachable nodes only, sorted by node
+ *      Row table   (N + 1) longs, int index (byte position / 4) of the record of every
+ *                  source, -1 for a source that wasn't written
+ * A row is stored sparse whenever that takes less space than the dense form, i.e. when
+ * fewer than half of the nodes can be reached, so graphs with poor reachability take far
+ * less than 4N^2 bytes. Unreachable nodes read as Integer.MAX_VALUE.
+ *
+ * Rows are written through a Writer, which accepts them in any order and from several
+ * threads, exactly as JohnsonAPSP hands them to a PathConsumer:
+ *      apsp.computeAllPaths(writer::writeRow);
+ * distance(u, v) then costs one lookup in the table and one read in a dense row, or a
+ * binary search in a sparse one.
+ */
+
+package DataStructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class DistanceMatrixFile {
+    public static final int MAGIC = 0x54534944;     // "DIST" read little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    private static final int DENSE = 0;
+    private static final int SPARSE = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final int nodes;
+    private final LargeIntArray data;       // the whole file as ints
+    private final LargeLongArray table;
+
+    private DistanceMatrixFile(int nodes, LargeIntArray data, LargeLongArray table) {
+        this.nodes = nodes;
+        this.data = data;
+        this.table = table;
+    }
+
+    // Map a file written by a Writer; nothing but the header is read
+    public static DistanceMatrixFile open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) < HEADER_BYTES) {
+                throw new IOException("Given file " + filename + " is too short for a distance matrix header.");
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Given file " + filename + " is not a distance matrix file.");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported distance matrix file version " + header.getInt(4) + ".");
+            }
+            int nodes = header.getInt(12);
+            long tablePosition = header.getLong(16);
+            if (tablePosition == 0) {
+                throw new IOException("Given file " + filename + " was not closed by its writer.");
+            }
+
+            // The mappings stay valid after the channel is closed
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            LargeIntArray data = LargeIntArray.map(channel, mode, 0, tablePosition / Integer.BYTES);
+            LargeLongArray table = LargeLongArray.map(channel, mode, tablePosition, nodes + 1L);
+            return new DistanceMatrixFile(nodes, data, table);
+        }
+    }
+
+    public int nodes() {
+        return nodes;
+    }
+
+    // Return true if the row of the source was written
+    public boolean hasRow(int source) {
+        return table.get(source) >= 0;
+    }
+
+    private long record(int source) {
+        long record = table.get(source);
+        if (record < 0) {
+            throw new IllegalArgumentException("No distances were stored for source " + source);
+        }
+        return record;
+    }
+
+    // Shortest distance from u to v, Integer.MAX_VALUE if there is no path
+    public int distance(int u, int v) {
+        long record = record(u);
+        if (data.get(record) == DENSE) {
+            return data.get(record + v);
+        }
+
+        // Binary search over the (node, distance) pairs
+        long pairs = record + 2;
+        int low = 0, high = data.get(record + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int node = data.get(pairs + 2L * middle);
+            if (node == v) return data.get(pairs + 2L * middle + 1);
+            if (node < v) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // Copy the whole row of a source into the given array, indexed by node
+    public int[] row(int source, int[] distances) {
+        long record = record(source);
+        if (data.get(record) == DENSE) {
+            for (int node = 1; node <= nodes; node++) distances[node] = data.get(record + node);
+        } else {
+            Arrays.fill(distances, 0, nodes + 1, Integer.MAX_VALUE);
+            int count = data.get(record + 1);
+            for (long pair = record + 2; pair < record + 2 + 2L * count; pair += 2) {
+                distances[data.get(pair)] = data.get(pair + 1);
+            }
+        }
+        distances[0] = Integer.MAX_VALUE;
+        return distances;
+    }
+
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int nodes;
+        private final long[] table;
+        private long position;      // byte position of the next record
+
+        public Writer(String filename, int nodes) throws IOException {
+            this.nodes = nodes;
+            channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            table = new long[nodes + 1];
+            Arrays.fill(table, -1);
+
+            // The table position stays 0 until close() writes it
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(0);
+            buffer.putInt(nodes);
+            buffer.putLong(0);
+            buffer.putLong(0);
+            position = HEADER_BYTES;
+        }
+
+        // Append the row of a source, indexed by node like the rows of a PathConsumer
+        public synchronized void writeRow(int source, int[] distances) {
+            int reachable = 0;
+            for (int node = 1; node <= nodes; node++) {
+                if (distances[node] != Integer.MAX_VALUE) reachable++;
+            }
+            try {
+                table[source] = position / Integer.BYTES;
+                if (2L * reachable + 1 < nodes) {
+                    putInt(SPARSE);
+                    putInt(reachable);
+                    for (int node = 1; node <= nodes; node++) {
+                        if (distances[node] == Integer.MAX_VALUE) continue;
+                        putInt(node);
+                        putInt(distances[node]);
+                    }
+                } else {
+                    putInt(DENSE);
+                    for (int node = 1; node <= nodes; node++) putInt(distances[node]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) flush();
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        // Write the row table and point the header at it
+        public synchronized void close() throws IOException {
+            long tablePosition = position;
+            for (long record : table) {
+                if (buffer.remaining() < Long.BYTES) flush();
+                buffer.putLong(record);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, tablePosition);
+            while (header.hasRemaining()) {
+                channel.write(header, 16 + header.position());
+            }
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        try {
+            long start = System.currentTimeMillis();
+            DistanceMatrixFile matrix = DistanceMatrixFile.open(filename);
+            long stop = System.currentTimeMillis();
+            System.out.println("Time taken to map " + matrix.nodes() + " rows: " + (stop - start) + "ms");
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                int u = Integer.parseInt(args[i]), v = Integer.parseInt(args[i + 1]);
+                System.out.println("Distance from " + u + " to " + v + ": " + matrix.distance(u, v));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Compact binary on-disk format for directed graphs, meant to be converted once from the
+ * text formats and then opened with MappedGraph, which serves the adjacency straight from
+ * a memory mapping instead of parsing anything.
+ *
+ * File layout (all values little-endian):
+ *      Header (32 bytes)
+ *          int     magic number "GRAF"
+ *          int     format version
+ *          int     flags (bit 0 set if the graph has edge weights)
+ *          int     number of nodes N (nodes are numbered 0 ... N)
+ *          long    number of edges M
+ *          long    reserved
+ *      Offsets     (N + 2) longs, edges of a node are offsets[node] ... offsets[node + 1] - 1
+ *      Targets     M ints, head node of every edge
+ *      Weights     M ints, only present if the graph is weighted
+ *
+ * Usage of the converter:
+ *      java DataStructures.GraphFile [format] [input file] [output file] [nodes]
+ * where format is one of
+ *      edges       "tail head" per line, as read by DirectedGraph(filename, nodes)
+ *      adjacency   "node head,weight head,weight ..." per line, as read by
+ *                  WeightedDirectedGraph(nodes, filename)
+ *      weighted    "nodes edges" header then "tail head weight" per line, as read by
+ *                  WeightedDirectedGraph(filename)
+ *      undirected  "nodes edges" header then "node node weight" per line, as read by
+ *                  WeightedUndirectedGraph(filename)
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GraphFile {
+    public static final int MAGIC = 0x46415247;     // "GRAF" read little-endian
+    public static final int VERSION = 1;
+    public static final int FLAG_WEIGHTED = 1;
+    public static final int HEADER_BYTES = 32;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Byte position of each section in a file with the given number of nodes and edges
+    static long offsetsPosition() {
+        return HEADER_BYTES;
+    }
+
+    static long targetsPosition(int nodes) {
+        return HEADER_BYTES + (long) (nodes + 2) * Long.BYTES;
+    }
+
+    static long weightsPosition(int nodes, long edges) {
+        return targetsPosition(nodes) + edges * Integer.BYTES;
+    }
+
+    // Return true if the file starts with the binary graph magic number
+    public static boolean isBinary(String filename) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(buffer, 0) < Integer.BYTES) return false;
+            return buffer.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Write any graph into the binary format
+    public static void write(AdjacencyGraph graph, String filename) throws IOException {
+        int nodes = graph.nodes();
+        boolean weighted = graph.isWeighted();
+        long edges = 0;
+        for (int node = 0; node <= nodes; node++) {
+            edges += graph.degree(node);
+        }
+
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Header
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(weighted ? FLAG_WEIGHTED : 0);
+            buffer.putInt(nodes);
+            buffer.putLong(edges);
+            buffer.putLong(0);
+
+            // Offsets
+            long offset = 0;
+            for (int node = 0; node <= nodes; node++) {
+                ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(offset);
+                offset += graph.degree(node);
+            }
+            ensureRemaining(channel, buffer, Long.BYTES);
+            buffer.putLong(offset);
+
+            // Targets, then weights in a second sweep over the edges
+            AdjacencyGraph.Cursor cursor = graph.cursor();
+            for (int node = 0; node <= nodes; node++) {
+                cursor.reset(node);
+                while (cursor.next()) {
+                    ensureRemaining(channel, buffer, Integer.BYTES);
+                    buffer.putInt(cursor.node());
+                }
+            }
+            if (weighted) {
+                for (int node = 0; node <= nodes; node++) {
+                    cursor.reset(node);
+                    while (cursor.next()) {
+                        ensureRemaining(channel, buffer, Integer.BYTES);
+                        buffer.putInt(cursor.weight());
+                    }
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) flush(channel, buffer);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Load a graph in one of the text formats and write it into the binary format
+    public static void convert(String format, String input, String output, int nodes) throws IOException {
+        AdjacencyGraph graph;
+        switch (format) {
+            case "edges":
+                graph = new DirectedGraph(input, nodes);
+                break;
+            case "adjacency":
+                graph = new WeightedDirectedGraph(nodes, input);
+                break;
+            case "weighted":
+                graph = new WeightedDirectedGraph(input);
+                break;
+            case "undirected":
+                graph = new WeightedUndirectedGraph(input);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown graph format: " + format);
+        }
+        write(graph, output);
+    }
+
+    public static void main(String[] args) {
+        String format = args[0];
+        String input = args[1];
+        String output = args[2];
+        int nodes = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        long start, stop;
+        try {
+            start = System.currentTimeMillis();
+            convert(format, input, output, nodes);
+            stop = System.currentTimeMillis();
+            System.out.println("Converting the graph took: " + (stop - start) + " ms");
+
+            start = System.currentTimeMillis();
+            MappedGraph graph = new MappedGraph(output);
+            stop = System.currentTimeMillis();
+            System.out.println("Opening " + graph.nodes() + " nodes and " + graph.edges()
+                               + " edges took: " + (stop - start) + " ms");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
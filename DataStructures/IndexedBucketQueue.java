@@ -0,0 +1,164 @@
+/*
+ * An indexed monotone bucket queue (Dial's algorithm) for small non-negative integer keys.
+ *
+ * Like the radix heap it only works when keys are never smaller than the last extracted
+ * minimum, and additionally every key must be at most C larger than that minimum (for
+ * Dijkstra, C is the largest edge weight). The keys in the queue then span at most C + 1
+ * values, so one bucket per value in a circular array of C + 1 buckets is enough, and
+ * bucket key % (C + 1) holds exactly the nodes with that key. Finding the minimum means
+ * walking forward from the last minimum to the next non-empty bucket.
+ * Nodes with a key of Integer.MAX_VALUE (not reached yet) are kept in a separate list.
+ *
+ * The buckets are doubly-linked lists stored in primitive arrays, so no operation
+ * allocates memory. Buckets that received a node since the last clear() are remembered,
+ * so clear() only visits those instead of all C + 1 of them. Keys below the last minimum
+ * or more than C above it throw an IllegalArgumentException.
+ *
+ * Supported Operations and their running times are as follows:
+ * ExtractMinKey        O(1) amortized, the scan over all buckets takes O(largest key) in total
+ * Insert               O(1)
+ * DecreaseKey          O(1)
+ */
+
+package DataStructures;
+
+import java.util.Arrays;
+
+public class IndexedBucketQueue implements IndexedPriorityQueue {
+    private int[] keys;
+    private int[] next;
+    private int[] previous;
+    private int[] bucket;       // bucket of a node, -1 if the node is not in the queue
+    private int[] heads;        // C + 1 circular buckets, then the list of infinite keys
+    private int span;           // C + 1
+    private int[] used;         // buckets that received a node since the last clear
+    private boolean[] listed;   // whether a bucket is in used
+    private int usedCount;
+    private int last, size, finite;
+
+    public IndexedBucketQueue(int N, int maxKeyIncrease) {
+        if (maxKeyIncrease < 0 || maxKeyIncrease == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid key increase " + maxKeyIncrease);
+        }
+        // Initialize a queue of given node capacity with all nodes at infinity
+        span = maxKeyIncrease + 1;
+        heads = new int[span + 1];
+        used = new int[span + 1];
+        listed = new boolean[span + 1];
+        keys = new int[N + 1];
+        next = new int[N + 1];
+        previous = new int[N + 1];
+        bucket = new int[N + 1];
+        Arrays.fill(bucket, -1);
+
+        for (int i = 1; i <= N; i++) {
+            insertNode(i, Integer.MAX_VALUE);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return bucket[node] >= 0;
+    }
+
+    // Only the buckets used since the last clear can hold nodes
+    public void clear() {
+        for (int k = 0; k < usedCount; k++) {
+            int i = used[k];
+            for (int node = heads[i]; node != 0; node = next[node]) {
+                bucket[node] = -1;
+            }
+            heads[i] = 0;
+            listed[i] = false;
+        }
+        usedCount = 0;
+        size = 0;
+        finite = 0;
+        last = 0;
+    }
+
+    private int bucketOf(int key) {
+        return key == Integer.MAX_VALUE ? span : key % span;
+    }
+
+    private void push(int node, int index) {
+        int head = heads[index];
+        next[node] = head;
+        previous[node] = 0;
+        if (head != 0) previous[head] = node;
+        heads[index] = node;
+        bucket[node] = index;
+        if (!listed[index]) {
+            listed[index] = true;
+            used[usedCount++] = index;
+        }
+        if (index != span) finite++;
+    }
+
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before == 0) {
+            heads[bucket[node]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != 0) previous[after] = before;
+        if (bucket[node] != span) finite--;
+    }
+
+    private void checkRange(int key) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last minimum " + last);
+        }
+        if (key != Integer.MAX_VALUE && key - last >= span) {
+            throw new IllegalArgumentException("Key " + key + " is more than " + (span - 1) + " above the last minimum " + last);
+        }
+    }
+
+    // Bucket holding the minimum, moving the last minimum up to its key
+    private int minBucket() {
+        if (finite == 0) return span;
+        while (heads[last % span] == 0) last++;
+        return last % span;
+    }
+
+    public int peekMinNode() {
+        return heads[minBucket()];
+    }
+
+    public int extractMinKey() {
+        int minNode = heads[minBucket()];
+        unlink(minNode);
+        bucket[minNode] = -1;
+        size--;
+        return keys[minNode];
+    }
+
+    public void insertNode(int node, int key) {
+        checkRange(key);
+        keys[node] = key;
+        push(node, bucketOf(key));
+        size++;
+    }
+
+    public int peekNode(int node) {
+        return keys[node];
+    }
+
+    public void decreaseKey(int node, int key) {
+        if (key >= keys[node]) return; // only proceed if key is smaller
+        checkRange(key);
+
+        keys[node] = key;
+        unlink(node);
+        push(node, bucketOf(key));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * An indexed d-ary min-heap (4-ary by default) backed by primitive arrays.
+ *
+ * Each node has d children instead of two, so the heap is log2(d) times shallower.
+ * Decrease-key, which Dijkstra's algorithm calls far more often than extract-min,
+ * walks up fewer levels, and the children compared during a bubble-down sit next to
+ * each other in memory.
+ *
+ * The heap is one-indexed: the children of index i are d(i - 1) + 2 ... di + 1 and
+ * its parent is (i - 2) / d + 1.
+ *
+ * Supported Operations and their running times are as follows:
+ * ExtractMinKey        O(d log n / log d)
+ * Insert               O(log n / log d)
+ * DecreaseKey          O(log n / log d)
+ */
+
+package DataStructures;
+
+public class IndexedDaryHeap implements IndexedPriorityQueue {
+    private final int arity;
+    private int[] keys;
+    private int[] heap;
+    private int[] position;
+    private int size;
+
+    public IndexedDaryHeap(int N) {
+        this(N, 4);
+    }
+
+    public IndexedDaryHeap(int N, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        // Initialize a heap of given node capacity with all nodes at infinity
+        this.arity = arity;
+        keys = new int[N + 1];
+        heap = new int[N + 1];
+        position = new int[N + 1];
+        size = N;
+
+        for (int i = 1; i <= N; i++) {
+            keys[i] = Integer.MAX_VALUE;
+            heap[i] = i;
+            position[i] = i;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return position[node] != 0;
+    }
+
+    public void clear() {
+        for (int i = 1; i <= size; i++) {
+            position[heap[i]] = 0;
+        }
+        size = 0;
+    }
+
+    private void heapifyUp(int index) {
+        // bubble up a heap violation (child < parent) until it is resolved
+        int node = heap[index];
+        int key = keys[node];
+
+        while (index > 1) {
+            int parentIndex = (index - 2) / arity + 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) break;
+
+            heap[index] = parent;
+            position[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    private void heapifyDown(int index) {
+        // bubble-down a heap violation (parent > child) until it is resolved
+        int node = heap[index];
+        int key = keys[node];
+
+        while (true) {
+            int first = arity * (index - 1) + 2;
+            if (first > size) break;
+            int last = Math.min(first + arity - 1, size);
+
+            // find the smallest of the children
+            int childIndex = first;
+            int childKey = keys[heap[first]];
+            for (int i = first + 1; i <= last; i++) {
+                int current = keys[heap[i]];
+                if (current < childKey) {
+                    childIndex = i;
+                    childKey = current;
+                }
+            }
+            if (key <= childKey) break;
+
+            int child = heap[childIndex];
+            heap[index] = child;
+            position[child] = index;
+            index = childIndex;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    public int peekMinNode() {
+        return heap[1];
+    }
+
+    public int extractMinKey() {
+        int minNode = heap[1];
+        int minKey = keys[minNode];
+        position[minNode] = 0;
+
+        int lastNode = heap[size--];
+        if (size > 0) {
+            heap[1] = lastNode;
+            position[lastNode] = 1;
+            heapifyDown(1);
+        }
+        return minKey;
+    }
+
+    public void insertNode(int node, int key) {
+        keys[node] = key;
+        heap[++size] = node;
+        position[node] = size;
+        heapifyUp(size);
+    }
+
+    public int peekNode(int node) {
+        return keys[node];
+    }
+
+    public void decreaseKey(int node, int key) {
+        if (key < keys[node]) {
+            keys[node] = key;
+            heapifyUp(position[node]);
+        }
+    }
+}
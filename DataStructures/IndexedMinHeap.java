@@ -0,0 +1,163 @@
+/*
+ * An indexed min-heap backed entirely by primitive arrays, meant as a drop-in replacement
+ * for CustomHeap in Dijkstra's shortest path and Prim's MST algorithms.
+ *
+ * Like CustomHeap, the heap is one-indexed and starts out holding every node from 1 to N
+ * with a key of Integer.MAX_VALUE. Instead of an ArrayList of keys and two HashMaps for the
+ * node/index mappings, it keeps three flat int arrays:
+ *      keys[node]      the current key of a node
+ *      heap[index]     the node stored at a given heap index
+ *      position[node]  the heap index of a node (0 if the node is not in the heap)
+ * All of them are sized once in the constructor, so none of the operations below box
+ * integers or allocate any memory.
+ *
+ * This is the BINARY backend of IndexedPriorityQueue.
+ *
+ * Supported Operations and their running times are as follows:
+ * ExtractMinKey        O(log n)
+ * Insert               O(log n)
+ * DecreaseKey          O(log n)
+ * PeekMinNode          O(1)
+ * PeekNode             O(1)
+ */
+
+package DataStructures;
+
+public class IndexedMinHeap implements IndexedPriorityQueue {
+    private int[] keys;
+    private int[] heap;
+    private int[] position;
+    private int size;
+
+    public IndexedMinHeap(int N) {
+        // Initialize a heap of given node capacity with all nodes at infinity
+        keys = new int[N + 1];
+        heap = new int[N + 1];
+        position = new int[N + 1];
+        size = N;
+
+        for (int i = 1; i <= N; i++) {
+            keys[i] = Integer.MAX_VALUE;
+            heap[i] = i;
+            position[i] = i;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return position[node] != 0;
+    }
+
+    public void clear() {
+        // Remove every node still in the heap. Only touches the nodes that are left,
+        // so clearing an almost empty heap is cheap.
+        for (int i = 1; i <= size; i++) {
+            position[heap[i]] = 0;
+        }
+        size = 0;
+    }
+
+    private void heapifyUp(int index) {
+        // bubble up a heap violation (child < parent) until it is resolved
+        int node = heap[index];
+        int key = keys[node];
+
+        while (index > 1) {
+            int parentIndex = index >>> 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) break; // stop if resolved
+
+            // move the parent down a level instead of swapping both ways
+            heap[index] = parent;
+            position[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    private void heapifyDown(int index) {
+        // bubble-down a heap violation (parent > child) until it is resolved
+        int node = heap[index];
+        int key = keys[node];
+
+        while ((index << 1) <= size) {
+            // pick the smaller of the two children
+            int childIndex = index << 1;
+            if (childIndex < size && keys[heap[childIndex + 1]] < keys[heap[childIndex]]) {
+                childIndex++;
+            }
+
+            int child = heap[childIndex];
+            if (key <= keys[child]) break; // stop if resolved
+
+            // move the child up a level and continue downward
+            heap[index] = child;
+            position[child] = index;
+            index = childIndex;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    public int peekMinNode() {
+        // Minimum key is always at index 1
+        return heap[1];
+    }
+
+    public int extractMinKey() {
+        // Remove the root and move the last node in the heap to its place
+        int minNode = heap[1];
+        int minKey = keys[minNode];
+        position[minNode] = 0;
+
+        int lastNode = heap[size--];
+        if (size > 0) {
+            heap[1] = lastNode;
+            position[lastNode] = 1;
+            heapifyDown(1);
+        }
+        return minKey;
+    }
+
+    public void insertNode(int node, int key) {
+        // Add node at the end of the heap and move it to the proper place
+        keys[node] = key;
+        heap[++size] = node;
+        position[node] = size;
+        heapifyUp(size);
+    }
+
+    public int peekNode(int node) {
+        // return the key of a particular node
+        return keys[node];
+    }
+
+    public void decreaseKey(int node, int key) {
+        // change the value of a node's key in the heap to a smaller one
+        if (key < keys[node]) { // only proceed if key is smaller
+            keys[node] = key;
+            heapifyUp(position[node]);
+        }
+    }
+
+    public static void main(String[] args) {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        int[] keys = { 9, 4, 20, 11, 12 };
+        for (int i = 0; i < keys.length; i++) {
+            heap.decreaseKey(i + 1, keys[i]);
+        }
+
+        while (!heap.isEmpty()) {
+            int node = heap.peekMinNode();
+            System.out.println("Node " + node + " has key " + heap.extractMinKey());
+        }
+    }
+}
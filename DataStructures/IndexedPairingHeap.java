@@ -0,0 +1,169 @@
+/*
+ * An indexed pairing heap stored in primitive arrays.
+ *
+ * The heap is a multiway tree kept in the leftmost-child / right-sibling form:
+ *      child[node]     leftmost child of a node
+ *      sibling[node]   next sibling to the right
+ *      previous[node]  previous sibling, or the parent if the node is a leftmost child
+ * Decrease-key cuts the node's subtree out of the tree and links it back to the root,
+ * which takes constant time. Extract-min combines the root's children with the standard
+ * two-pass pairing: link them in pairs from left to right, then link the pairs from
+ * right to left. The intermediate list of pairs is threaded through the sibling array,
+ * so no operation allocates memory.
+ *
+ * Membership is tracked with a generation stamp, which lets clear() run in O(1).
+ *
+ * Supported Operations and their amortized running times are as follows:
+ * ExtractMinKey        O(log n)
+ * Insert               O(1)
+ * DecreaseKey          O(1) (o(log n) proven, O(1) in practice)
+ */
+
+package DataStructures;
+
+import java.util.Arrays;
+
+public class IndexedPairingHeap implements IndexedPriorityQueue {
+    private int[] keys;
+    private int[] child;
+    private int[] sibling;
+    private int[] previous;
+    private int[] stamp;
+    private int generation;
+    private int root, size;
+
+    public IndexedPairingHeap(int N) {
+        // Initialize a heap of given node capacity with all nodes at infinity
+        keys = new int[N + 1];
+        child = new int[N + 1];
+        sibling = new int[N + 1];
+        previous = new int[N + 1];
+        stamp = new int[N + 1];
+        generation = 1;
+
+        for (int i = 1; i <= N; i++) {
+            insertNode(i, Integer.MAX_VALUE);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return stamp[node] == generation;
+    }
+
+    public void clear() {
+        root = 0;
+        size = 0;
+        if (++generation == 0) {
+            // stamps wrapped around, forget every old one
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private int link(int a, int b) {
+        // Make the root with the larger key the leftmost child of the other one
+        if (keys[b] < keys[a]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != 0) previous[first] = b;
+        previous[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    public int peekMinNode() {
+        return root;
+    }
+
+    public int extractMinKey() {
+        int minNode = root;
+        int minKey = keys[minNode];
+        stamp[minNode] = 0;
+        size--;
+
+        // First pass: link children in pairs from left to right, pushing every
+        // pair onto a stack threaded through the sibling array
+        int stack = 0;
+        int current = child[minNode];
+        child[minNode] = 0;
+        while (current != 0) {
+            int a = current;
+            int b = sibling[a];
+            int merged;
+            if (b == 0) {
+                current = 0;
+                merged = a;
+            } else {
+                current = sibling[b];
+                sibling[b] = 0;
+                previous[b] = 0;
+                merged = link(a, b);
+            }
+            sibling[merged] = stack;
+            previous[merged] = 0;
+            stack = merged;
+        }
+
+        // Second pass: link the pairs from right to left (the stack is already reversed)
+        int result = stack;
+        if (result != 0) {
+            stack = sibling[result];
+            sibling[result] = 0;
+            while (stack != 0) {
+                int next = sibling[stack];
+                sibling[stack] = 0;
+                result = link(result, stack);
+                stack = next;
+            }
+        }
+        root = result;
+        return minKey;
+    }
+
+    public void insertNode(int node, int key) {
+        keys[node] = key;
+        child[node] = 0;
+        sibling[node] = 0;
+        previous[node] = 0;
+        stamp[node] = generation;
+        size++;
+        root = (root == 0) ? node : link(root, node);
+    }
+
+    public int peekNode(int node) {
+        return keys[node];
+    }
+
+    public void decreaseKey(int node, int key) {
+        if (key >= keys[node]) return; // only proceed if key is smaller
+        keys[node] = key;
+        if (node == root) return;
+
+        // Cut the node's subtree out of its sibling list
+        int before = previous[node];
+        int after = sibling[node];
+        if (child[before] == node) {
+            child[before] = after;
+        } else {
+            sibling[before] = after;
+        }
+        if (after != 0) previous[after] = before;
+        sibling[node] = 0;
+        previous[node] = 0;
+
+        // and link it back to the root
+        root = link(root, node);
+    }
+}
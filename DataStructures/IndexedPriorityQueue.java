@@ -0,0 +1,73 @@
+/*
+ * Common interface for the indexed min-priority queues used by Dijkstra's shortest path
+ * and Prim's MST algorithms. Every queue holds nodes from 1 to N keyed by an integer score
+ * and, like CustomHeap, starts out holding all of them with a key of Integer.MAX_VALUE.
+ *
+ * The backend is picked with a Type when the queue is created:
+ * BINARY       IndexedMinHeap, a plain binary heap
+ * DARY         IndexedDaryHeap, a 4-ary heap (shallower and more cache friendly)
+ * PAIRING      IndexedPairingHeap, O(1) amortized insert and decrease-key
+ * RADIX        IndexedRadixHeap, only for non-negative keys that are extracted in
+ *              non-decreasing order (e.g. Dijkstra with non-negative edge weights)
+ * BUCKET       IndexedBucketQueue (Dial), monotone like RADIX, and keys may be at most a
+ *              given C above the minimum (e.g. Dijkstra with edge weights up to C)
+ * AUTO         not a queue itself: Dijkstra picks BUCKET, RADIX or BINARY from the range
+ *              of the edge weights
+ */
+
+package DataStructures;
+
+public interface IndexedPriorityQueue {
+    public enum Type { BINARY, DARY, PAIRING, RADIX, BUCKET, AUTO }
+
+    public static IndexedPriorityQueue create(Type type, int N) {
+        if (type == Type.BUCKET) {
+            throw new IllegalArgumentException("A bucket queue needs the largest key increase");
+        }
+        return create(type, N, 0);
+    }
+
+    // maxKeyIncrease is how far above the minimum a key may be, only used by BUCKET
+    public static IndexedPriorityQueue create(Type type, int N, int maxKeyIncrease) {
+        switch (type) {
+            case DARY:
+                return new IndexedDaryHeap(N);
+            case PAIRING:
+                return new IndexedPairingHeap(N);
+            case RADIX:
+                return new IndexedRadixHeap(N);
+            case BUCKET:
+                return new IndexedBucketQueue(N, maxKeyIncrease);
+            case AUTO:
+                throw new IllegalArgumentException("AUTO has to be resolved from the edge weights first");
+            default:
+                return new IndexedMinHeap(N);
+        }
+    }
+
+    // Number of nodes currently in the queue
+    int size();
+
+    boolean isEmpty();
+
+    // Return true if the node has not been extracted (or cleared) yet
+    boolean contains(int node);
+
+    // Remove every node left in the queue
+    void clear();
+
+    // Node with the minimum key
+    int peekMinNode();
+
+    // Remove the node with the minimum key and return its key
+    int extractMinKey();
+
+    // Add a node that is not currently in the queue
+    void insertNode(int node, int key);
+
+    // Current key of a node
+    int peekNode(int node);
+
+    // Lower the key of a node in the queue, ignored if the new key isn't smaller
+    void decreaseKey(int node, int key);
+}
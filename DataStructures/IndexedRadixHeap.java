@@ -0,0 +1,164 @@
+/*
+ * An indexed monotone radix heap for non-negative integer keys.
+ *
+ * A radix heap only works when keys are never smaller than the last extracted minimum,
+ * which is exactly the case for Dijkstra's algorithm with non-negative edge weights.
+ * Nodes are kept in 33 buckets according to the highest bit in which their key differs
+ * from the last extracted minimum: bucket 0 holds keys equal to it and bucket i holds
+ * keys whose highest differing bit is i - 1. When bucket 0 runs empty, the first
+ * non-empty bucket is scanned for its minimum, which becomes the new reference, and
+ * its nodes are redistributed into strictly lower buckets. A node can therefore only
+ * move down at most 32 times in total.
+ *
+ * The buckets are doubly-linked lists stored in primitive arrays, so no operation
+ * allocates memory. Inserting or decreasing a key below the last extracted minimum
+ * throws an IllegalArgumentException.
+ *
+ * Supported Operations and their amortized running times are as follows:
+ * ExtractMinKey        O(log C) where C is the largest key
+ * Insert               O(1)
+ * DecreaseKey          O(1)
+ */
+
+package DataStructures;
+
+import java.util.Arrays;
+
+public class IndexedRadixHeap implements IndexedPriorityQueue {
+    private static final int BUCKETS = 33;
+
+    private int[] keys;
+    private int[] next;
+    private int[] previous;
+    private int[] bucket;           // bucket of a node, -1 if the node is not in the heap
+    private int[] heads = new int[BUCKETS];
+    private int last, size;
+
+    public IndexedRadixHeap(int N) {
+        // Initialize a heap of given node capacity with all nodes at infinity
+        keys = new int[N + 1];
+        next = new int[N + 1];
+        previous = new int[N + 1];
+        bucket = new int[N + 1];
+        Arrays.fill(bucket, -1);
+
+        for (int i = 1; i <= N; i++) {
+            insertNode(i, Integer.MAX_VALUE);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return bucket[node] >= 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            for (int node = heads[i]; node != 0; node = next[node]) {
+                bucket[node] = -1;
+            }
+            heads[i] = 0;
+        }
+        size = 0;
+        last = 0;
+    }
+
+    private int bucketOf(int key) {
+        // index of the highest bit in which the key differs from the last minimum
+        return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void push(int node, int index) {
+        int head = heads[index];
+        next[node] = head;
+        previous[node] = 0;
+        if (head != 0) previous[head] = node;
+        heads[index] = node;
+        bucket[node] = index;
+    }
+
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before == 0) {
+            heads[bucket[node]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != 0) previous[after] = before;
+    }
+
+    private void checkMonotone(int key) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last minimum " + last);
+        }
+    }
+
+    private void refill() {
+        // Move the smallest keys into bucket 0 if it is empty
+        if (heads[0] != 0) return;
+
+        int index = 1;
+        while (heads[index] == 0) index++;
+
+        // the minimum of this bucket becomes the new reference point
+        int min = Integer.MAX_VALUE;
+        for (int node = heads[index]; node != 0; node = next[node]) {
+            if (keys[node] < min) min = keys[node];
+        }
+        last = min;
+
+        // every node of the bucket now lands in a lower one
+        int node = heads[index];
+        heads[index] = 0;
+        while (node != 0) {
+            int following = next[node];
+            push(node, bucketOf(keys[node]));
+            node = following;
+        }
+    }
+
+    public int peekMinNode() {
+        refill();
+        return heads[0];
+    }
+
+    public int extractMinKey() {
+        refill();
+        int minNode = heads[0];
+        unlink(minNode);
+        bucket[minNode] = -1;
+        size--;
+        return keys[minNode];
+    }
+
+    public void insertNode(int node, int key) {
+        checkMonotone(key);
+        keys[node] = key;
+        push(node, bucketOf(key));
+        size++;
+    }
+
+    public int peekNode(int node) {
+        return keys[node];
+    }
+
+    public void decreaseKey(int node, int key) {
+        if (key >= keys[node]) return; // only proceed if key is smaller
+        checkMonotone(key);
+
+        keys[node] = key;
+        int index = bucketOf(key);
+        if (index != bucket[node]) {
+            unlink(node);
+            push(node, index);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * A streaming parser that reads the integers of a text file straight from its bytes.
+ *
+ * Bytes are read from a FileChannel into one reusable buffer and digits are accumulated
+ * into an int as they are scanned, so no Strings, char arrays or boxed integers are
+ * created while parsing. Anything that is not a digit or a minus sign separates two
+ * integers, which makes the parser tolerant of tabs, commas, trailing spaces, CRLF line
+ * endings and a missing final newline. A minus sign that isn't followed by a digit throws
+ * an IOException naming its byte position, like the Scanner it replaces would have failed.
+ *
+ * Line structure is still available through firstOnLine(), which is true for the first
+ * integer after a line break. A parser can also be restricted to a byte range of the
+ * file, which lets several parsers work on different parts of the same file.
+ *
+ * Usage:
+ *      try (IntParser parser = new IntParser(filename)) {
+ *          while (parser.next()) {
+ *              int value = parser.value();
+ *          }
+ *      }
+ */
+
+package DataStructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class IntParser implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private long position, end;     // next file position to read and end of the range
+    private int index, limit;       // next byte and end of the valid bytes in the buffer
+    private int value;
+    private boolean lineStart, firstOnLine;
+
+    public IntParser(String filename) throws IOException {
+        this(FileChannel.open(Path.of(filename), StandardOpenOption.READ), true, 0, -1);
+    }
+
+    // Parse only the bytes in [start, end) of an already open channel
+    public IntParser(FileChannel channel, long start, long end) throws IOException {
+        this(channel, false, start, end);
+    }
+
+    private IntParser(FileChannel channel, boolean ownsChannel, long start, long end) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.position = start;
+        this.end = (end < 0) ? channel.size() : end;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+        this.lineStart = true;
+    }
+
+    private boolean fill() throws IOException {
+        // Read the next block of the range into the buffer
+        if (position >= end) return false;
+        buffer.clear();
+        buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + read);
+            if (count < 0) break;
+            read += count;
+        }
+        if (read == 0) return false;
+
+        position += read;
+        index = 0;
+        limit = read;
+        return true;
+    }
+
+    private int read() throws IOException {
+        // Return the next byte, or -1 at the end of the range
+        if (index == limit && !fill()) return -1;
+        return bytes[index++];
+    }
+
+    // Advance to the next integer, return false once the range is exhausted
+    public boolean next() throws IOException {
+        int c = read();
+
+        // skip separators, remembering whether a line ended on the way
+        while (c != -1 && (c < '0' || c > '9') && c != '-') {
+            if (c == '\n') lineStart = true;
+            c = read();
+        }
+        if (c == -1) return false;
+
+        firstOnLine = lineStart;
+        lineStart = false;
+
+        boolean negative = (c == '-');
+        long sign = position - limit + index - 1;
+        if (negative) c = read();
+        if (c < '0' || c > '9') {
+            throw new IOException("Expected a digit after the minus sign at byte " + sign);
+        }
+
+        int result = 0;
+        while (c >= '0' && c <= '9') {
+            result = result * 10 + (c - '0');
+            c = read();
+        }
+        // the delimiter was consumed, so note a line break right after the number
+        if (c == '\n') lineStart = true;
+
+        value = negative ? -result : result;
+        return true;
+    }
+
+    // The integer read by the last successful call to next()
+    public int value() {
+        return value;
+    }
+
+    // True if the last integer is the first one on its line
+    public boolean firstOnLine() {
+        return firstOnLine;
+    }
+
+    public void close() throws IOException {
+        if (ownsChannel) channel.close();
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        long start, stop, count = 0, sum = 0;
+        start = System.currentTimeMillis();
+        try (IntParser parser = new IntParser(filename)) {
+            while (parser.next()) {
+                count++;
+                sum += parser.value();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        stop = System.currentTimeMillis();
+        System.out.println("Parsed " + count + " integers (sum " + sum + ") in " + (stop - start) + " ms");
+    }
+}
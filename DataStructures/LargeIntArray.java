@@ -0,0 +1,85 @@
+/*
+ * A long-indexed array of ints kept outside the Java heap.
+ *
+ * A single ByteBuffer is limited to 2^31 bytes, so the array is split into segments of
+ * 2^28 ints (1 GiB) each and an index is resolved as [index >> 28][index & mask]. The
+ * segments are either memory mapped from a file (map) or allocated as direct buffers
+ * (allocate); in both cases the data never touches the garbage collected heap.
+ * Values are stored little-endian.
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+public class LargeIntArray {
+    private static final int SHIFT = 28;
+    private static final int SEGMENT = 1 << SHIFT;
+    private static final long MASK = SEGMENT - 1;
+
+    private final ByteBuffer[] segments;
+    private final long length;
+
+    private LargeIntArray(ByteBuffer[] segments, long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    // Allocate a zero-filled array of the given length in direct memory
+    public static LargeIntArray allocate(long length) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            int size = segmentSize(length, i);
+            segments[i] = ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeIntArray(segments, length);
+    }
+
+    // Map length ints of a file starting at the given byte position
+    public static LargeIntArray map(FileChannel channel, FileChannel.MapMode mode,
+                                    long position, long length) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            int size = segmentSize(length, i);
+            long start = position + ((long) i << SHIFT) * Integer.BYTES;
+            segments[i] = channel.map(mode, start, (long) size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeIntArray(segments, length);
+    }
+
+    private static int segmentCount(long length) {
+        return (int) ((length + SEGMENT - 1) >>> SHIFT);
+    }
+
+    private static int segmentSize(long length, int segment) {
+        return (int) Math.min(SEGMENT, length - ((long) segment << SHIFT));
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public int get(long index) {
+        return segments[(int) (index >>> SHIFT)].getInt((int) (index & MASK) * Integer.BYTES);
+    }
+
+    public void set(long index, int value) {
+        segments[(int) (index >>> SHIFT)].putInt((int) (index & MASK) * Integer.BYTES, value);
+    }
+
+    // Fill the whole array with the bytes of a file starting at the given position
+    public void readFrom(FileChannel channel, long position) throws IOException {
+        for (ByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate();
+            view.clear();
+            while (view.hasRemaining()) {
+                int read = channel.read(view, position);
+                if (read < 0) throw new IOException("Unexpected end of file at byte " + position);
+                position += read;
+            }
+        }
+    }
+}
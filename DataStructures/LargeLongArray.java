@@ -0,0 +1,81 @@
+/*
+ * A long-indexed array of longs kept outside the Java heap, the long counterpart of
+ * LargeIntArray. Segments hold 2^27 longs (1 GiB) each and are either memory mapped
+ * from a file or allocated as direct buffers. Values are stored little-endian.
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+public class LargeLongArray {
+    private static final int SHIFT = 27;
+    private static final int SEGMENT = 1 << SHIFT;
+    private static final long MASK = SEGMENT - 1;
+
+    private final ByteBuffer[] segments;
+    private final long length;
+
+    private LargeLongArray(ByteBuffer[] segments, long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    // Allocate a zero-filled array of the given length in direct memory
+    public static LargeLongArray allocate(long length) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            int size = segmentSize(length, i);
+            segments[i] = ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeLongArray(segments, length);
+    }
+
+    // Map length longs of a file starting at the given byte position
+    public static LargeLongArray map(FileChannel channel, FileChannel.MapMode mode,
+                                     long position, long length) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            int size = segmentSize(length, i);
+            long start = position + ((long) i << SHIFT) * Long.BYTES;
+            segments[i] = channel.map(mode, start, (long) size * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeLongArray(segments, length);
+    }
+
+    private static int segmentCount(long length) {
+        return (int) ((length + SEGMENT - 1) >>> SHIFT);
+    }
+
+    private static int segmentSize(long length, int segment) {
+        return (int) Math.min(SEGMENT, length - ((long) segment << SHIFT));
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long get(long index) {
+        return segments[(int) (index >>> SHIFT)].getLong((int) (index & MASK) * Long.BYTES);
+    }
+
+    public void set(long index, long value) {
+        segments[(int) (index >>> SHIFT)].putLong((int) (index & MASK) * Long.BYTES, value);
+    }
+
+    // Fill the whole array with the bytes of a file starting at the given position
+    public void readFrom(FileChannel channel, long position) throws IOException {
+        for (ByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate();
+            view.clear();
+            while (view.hasRemaining()) {
+                int read = channel.read(view, position);
+                if (read < 0) throw new IOException("Unexpected end of file at byte " + position);
+                position += read;
+            }
+        }
+    }
+}
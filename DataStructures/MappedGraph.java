@@ -0,0 +1,63 @@
+/*
+ * A read-only graph served directly from a memory-mapped GraphFile.
+ *
+ * Opening the graph only reads the 32 byte header and maps the offsets, targets and
+ * weights sections with FileChannel.map; nothing is parsed or copied onto the heap.
+ * A file that can't be read or isn't a graph file throws an UncheckedIOException.
+ * Pages are loaded lazily by the operating system as the adjacency is accessed, and
+ * the page cache is shared between every process that maps the same file.
+ *
+ * Edge indices are longs, so a graph may hold more than 2^31 edges. The adjacency is read
+ * exactly like an OffHeapGraph, only its arrays are mapped instead of allocated.
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedGraph extends OffHeapGraph {
+    public MappedGraph(String filename) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GraphFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) < GraphFile.HEADER_BYTES) {
+                throw new IOException("Given file " + filename + " is too short for a graph header.");
+            }
+            if (header.getInt(0) != GraphFile.MAGIC) {
+                throw new IOException("Given file " + filename + " is not a binary graph file.");
+            }
+            if (header.getInt(4) != GraphFile.VERSION) {
+                throw new IOException("Unsupported graph file version " + header.getInt(4) + ".");
+            }
+            boolean weighted = (header.getInt(8) & GraphFile.FLAG_WEIGHTED) != 0;
+            this.nodes = header.getInt(12);
+            this.edges = header.getLong(16);
+
+            // The mappings stay valid after the channel is closed
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            offsets = LargeLongArray.map(channel, mode, GraphFile.offsetsPosition(), nodes + 2L);
+            targets = LargeIntArray.map(channel, mode, GraphFile.targetsPosition(nodes), edges);
+            if (weighted) {
+                weights = LargeIntArray.map(channel, mode, GraphFile.weightsPosition(nodes, edges), edges);
+            }
+        } catch (IOException e) {
+            // Don't hand out a graph without its arrays
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        long start, stop;
+        start = System.currentTimeMillis();
+        MappedGraph graph = new MappedGraph(filename);
+        stop = System.currentTimeMillis();
+        System.out.println("Time taken to map graph: " + (stop - start) + "ms");
+        System.out.println("Nodes: " + graph.nodes() + ", edges: " + graph.edges());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * A read-only CSR graph whose adjacency is stored outside the Java heap.
+ *
+ * The layout is the same as CSRGraph, but offsets are longs and all three arrays live in
+ * direct memory (LargeLongArray / LargeIntArray), so:
+ *      - a graph can hold more than 2^31 edges, which no Java array can index
+ *      - the garbage collector never has to scan or move the edges, so a billion-edge
+ *        graph does not cause long GC pauses
+ * Neighbours are read through the AdjacencyGraph cursor, which makes the graph usable by
+ * Dijkstra, BellmanFord and Kosaraju as is.
+ *
+ * A graph can be copied from any other representation (copyOf), read from a GraphFile
+ * into memory (load), or streamed edge by edge through the Builder, whose edges must be
+ * added grouped by tail node in increasing order. MappedGraph shares this class and only
+ * differs in mapping the arrays from the file instead of allocating them.
+ *
+ * Direct memory is released when the graph becomes unreachable; its size is limited by
+ * -XX:MaxDirectMemorySize.
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class OffHeapGraph implements AdjacencyGraph {
+    protected int nodes;
+    protected long edges;
+    protected LargeLongArray offsets;
+    protected LargeIntArray targets;
+    protected LargeIntArray weights;
+
+    protected OffHeapGraph() {}
+
+    private OffHeapGraph(int nodes, long edges, LargeLongArray offsets,
+                         LargeIntArray targets, LargeIntArray weights) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Streams edges into off-heap arrays sized up front
+    public static class Builder {
+        private final int nodes;
+        private final long edges;
+        private final LargeLongArray offsets;
+        private final LargeIntArray targets;
+        private final LargeIntArray weights;
+        private int tail;
+        private long count;
+
+        public Builder(int nodes, long edges, boolean weighted) {
+            this.nodes = nodes;
+            this.edges = edges;
+            offsets = LargeLongArray.allocate(nodes + 2L);
+            targets = LargeIntArray.allocate(edges);
+            weights = weighted ? LargeIntArray.allocate(edges) : null;
+        }
+
+        public Builder addEdge(int tail, int head) {
+            return addEdge(tail, head, 1);
+        }
+
+        public Builder addEdge(int tail, int head, int weight) {
+            if (tail < this.tail || tail > nodes) {
+                throw new IllegalArgumentException("Edges must be added in increasing tail order");
+            }
+            if (count == edges) {
+                throw new IllegalStateException("More than " + edges + " edges added");
+            }
+            // close the offsets of every node skipped since the last edge
+            while (this.tail < tail) {
+                offsets.set(++this.tail, count);
+            }
+            targets.set(count, head);
+            if (weights != null) weights.set(count, weight);
+            count++;
+            return this;
+        }
+
+        public OffHeapGraph build() {
+            if (count != edges) {
+                throw new IllegalStateException("Only " + count + " of " + edges + " edges added");
+            }
+            while (tail <= nodes) {
+                offsets.set(++tail, count);
+            }
+            return new OffHeapGraph(nodes, edges, offsets, targets, weights);
+        }
+    }
+
+    // Copy any other graph representation into direct memory
+    public static OffHeapGraph copyOf(AdjacencyGraph graph) {
+        long edges = 0;
+        for (int node = 0; node <= graph.nodes(); node++) {
+            edges += graph.degree(node);
+        }
+
+        Builder builder = new Builder(graph.nodes(), edges, graph.isWeighted());
+        AdjacencyGraph.Cursor cursor = graph.cursor();
+        for (int node = 0; node <= graph.nodes(); node++) {
+            cursor.reset(node);
+            while (cursor.next()) {
+                builder.addEdge(node, cursor.node(), cursor.weight());
+            }
+        }
+        return builder.build();
+    }
+
+    // Read a whole GraphFile into direct memory
+    public static OffHeapGraph load(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GraphFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) < GraphFile.HEADER_BYTES || header.getInt(0) != GraphFile.MAGIC) {
+                throw new IOException("Given file " + filename + " is not a binary graph file.");
+            }
+            if (header.getInt(4) != GraphFile.VERSION) {
+                throw new IOException("Unsupported graph file version " + header.getInt(4) + ".");
+            }
+            boolean weighted = (header.getInt(8) & GraphFile.FLAG_WEIGHTED) != 0;
+            int nodes = header.getInt(12);
+            long edges = header.getLong(16);
+
+            LargeLongArray offsets = LargeLongArray.allocate(nodes + 2L);
+            LargeIntArray targets = LargeIntArray.allocate(edges);
+            LargeIntArray weights = weighted ? LargeIntArray.allocate(edges) : null;
+            offsets.readFrom(channel, GraphFile.offsetsPosition());
+            targets.readFrom(channel, GraphFile.targetsPosition(nodes));
+            if (weighted) weights.readFrom(channel, GraphFile.weightsPosition(nodes, edges));
+
+            return new OffHeapGraph(nodes, edges, offsets, targets, weights);
+        }
+    }
+
+    public int nodes() { return this.nodes; }
+    public long edges() { return this.edges; }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int degree(int node) {
+        return (int) (offsets.get(node + 1) - offsets.get(node));
+    }
+
+    // Index of the first edge leaving a node
+    public long firstEdge(int node) {
+        return offsets.get(node);
+    }
+
+    // Index one past the last edge leaving a node
+    public long endEdge(int node) {
+        return offsets.get(node + 1);
+    }
+
+    public int target(long edge) {
+        return targets.get(edge);
+    }
+
+    public int weight(long edge) {
+        return weights == null ? 1 : weights.get(edge);
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private long edge, end;
+
+            public void reset(int node) {
+                edge = offsets.get(node) - 1;
+                end = offsets.get(node + 1);
+            }
+
+            public boolean next() {
+                return ++edge < end;
+            }
+
+            public int node() {
+                return targets.get(edge);
+            }
+
+            public int weight() {
+                return weights == null ? 1 : weights.get(edge);
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        long start, stop;
+        try {
+            start = System.currentTimeMillis();
+            OffHeapGraph graph = OffHeapGraph.load(filename);
+            stop = System.currentTimeMillis();
+            System.out.println("Time taken to load graph off-heap: " + (stop - start) + "ms");
+            System.out.println("Nodes: " + graph.nodes() + ", edges: " + graph.edges());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
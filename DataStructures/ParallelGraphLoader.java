@@ -0,0 +1,175 @@
+/*
+ * Loads the weighted text graph formats into a CSRGraph using every available core.
+ *
+ * The file is split into line-aligned byte ranges (chunks) that are parsed concurrently
+ * with IntParser, so no String or String[] is created per line. Loading takes two passes
+ * over the file:
+ *      1. Every chunk counts the out-degree of the nodes it sees.
+ *      2. The degrees are prefix-summed into the CSR offsets, then every chunk parses its
+ *         range again and writes its edges straight into their final slots.
+ * The edge arrays are therefore allocated exactly once at their final size. The relative
+ * order of a node's edges is kept when all of them are on a single line (ADJACENCY), and
+ * is otherwise unspecified.
+ *
+ * Supported formats:
+ * ADJACENCY    "node head,weight head,weight ..." per line (tabs or spaces), as read by
+ *              WeightedDirectedGraph(nodes, filename)
+ * WEIGHTED     "nodes edges" header then "tail head weight" per line, as read by
+ *              WeightedDirectedGraph(filename)
+ * UNDIRECTED   "nodes edges" header then "node node weight" per line, stored in both
+ *              directions, as read by WeightedUndirectedGraph(filename)
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+public class ParallelGraphLoader {
+    public enum Format { ADJACENCY, WEIGHTED, UNDIRECTED }
+
+    private interface EdgeVisitor {
+        void edge(int tail, int head, int weight);
+    }
+
+    // Load using a few chunks per available core. The node count is only used by the
+    // ADJACENCY format, the other formats read it from their header.
+    public static CSRGraph load(String filename, Format format, int nodes) throws IOException {
+        return load(filename, format, nodes, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public static CSRGraph load(String filename, Format format, int nodes, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long bodyStart = 0;
+
+            if (format != Format.ADJACENCY) {
+                // The header line holds the node count
+                bodyStart = nextLineStart(channel, 0, size);
+                try (IntParser parser = new IntParser(channel, 0, bodyStart)) {
+                    if (!parser.next()) {
+                        throw new IOException("Given file " + filename + " is empty.");
+                    }
+                    nodes = parser.value();
+                }
+            }
+
+            // Cut the body into line-aligned chunks
+            long[] bounds = new long[chunks + 1];
+            bounds[0] = bodyStart;
+            for (int i = 1; i < chunks; i++) {
+                long nominal = bodyStart + (size - bodyStart) * i / chunks;
+                bounds[i] = Math.max(bounds[i - 1], nextLineStart(channel, nominal - 1, size));
+            }
+            bounds[chunks] = size;
+
+            // First pass: count the out-degrees
+            AtomicIntegerArray degrees = new AtomicIntegerArray(nodes + 1);
+            parallelParse(channel, bounds, format, (tail, head, weight) -> degrees.incrementAndGet(tail));
+
+            long total = 0;
+            int[] offsets = new int[nodes + 2];
+            for (int node = 0; node <= nodes; node++) {
+                total += degrees.get(node);
+                if (total > Integer.MAX_VALUE) {
+                    throw new IOException("Given file " + filename + " has too many edges for a CSRGraph.");
+                }
+                offsets[node + 1] = (int) total;
+            }
+
+            // Second pass: scatter every edge into its slot
+            int[] targets = new int[(int) total];
+            int[] weights = new int[(int) total];
+            AtomicIntegerArray fill = new AtomicIntegerArray(offsets);
+            parallelParse(channel, bounds, format, (tail, head, weight) -> {
+                int slot = fill.getAndIncrement(tail);
+                targets[slot] = head;
+                weights[slot] = weight;
+            });
+
+            return new CSRGraph(nodes, offsets, targets, weights);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        // Return the position right after the first line break at or after position
+        if (position < 0) return 0;
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static void parallelParse(FileChannel channel, long[] bounds, Format format, EdgeVisitor visitor) {
+        IntStream.range(0, bounds.length - 1).parallel().forEach(chunk -> {
+            try (IntParser parser = new IntParser(channel, bounds[chunk], bounds[chunk + 1])) {
+                parseChunk(parser, format, visitor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void parseChunk(IntParser parser, Format format, EdgeVisitor visitor) throws IOException {
+        if (format == Format.ADJACENCY) {
+            // The first integer on a line is the base node, the rest are (head, weight) pairs
+            int tail = 0;
+            while (parser.next()) {
+                if (parser.firstOnLine()) {
+                    tail = parser.value();
+                    continue;
+                }
+                int head = parser.value();
+                if (!parser.next()) break;
+                visitor.edge(tail, head, parser.value());
+            }
+            return;
+        }
+
+        // Edge list formats: three integers per edge
+        while (parser.next()) {
+            int tail = parser.value();
+            if (!parser.next()) break;
+            int head = parser.value();
+            if (!parser.next()) break;
+            int weight = parser.value();
+
+            visitor.edge(tail, head, weight);
+            if (format == Format.UNDIRECTED) {
+                visitor.edge(head, tail, weight);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Format format = Format.valueOf(args[0]);
+        String filename = args[1];
+        int nodes = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        long start, stop;
+        try {
+            start = System.currentTimeMillis();
+            CSRGraph graph = load(filename, format, nodes);
+            stop = System.currentTimeMillis();
+            System.out.println("Loading " + graph.nodes() + " nodes and " + graph.edges()
+                               + " edges took: " + (stop - start) + " ms");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
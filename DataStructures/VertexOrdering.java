@@ -0,0 +1,253 @@
+/*
+ * Relabels the nodes of a graph so that nodes used together get nearby IDs.
+ *
+ * Node IDs from an input file usually follow no particular order, so a traversal jumps
+ * all over the adjacency and distance arrays and misses the cache on almost every edge.
+ * Renumbering the nodes keeps neighbours close together in memory:
+ *      BFS     - nodes are numbered in breadth-first order, one component after another
+ *      RCM     - reverse Cuthill-McKee: breadth-first from a low degree node, visiting
+ *                neighbours by increasing degree, and the whole order reversed. This keeps
+ *                the bandwidth (largest |u - v| over all edges) small
+ *      DEGREE  - nodes sorted by decreasing degree, so the hubs share a few cache lines
+ * The orderings treat every edge as undirected, i.e. they look at both the out and the in
+ * neighbours of a node.
+ *
+ * Only nodes within [first, last] are renumbered, and they keep to that range; all other
+ * indices (e.g. the unused zeroth node of the one-indexed graphs) stay where they are.
+ * relabel() rewrites a graph into a CSRGraph with the new IDs, and toNew/toOld/toOriginal
+ * translate nodes and per-node results between the two numberings.
+ */
+
+package DataStructures;
+
+import java.io.IOException;
+
+public class VertexOrdering {
+    public enum Strategy { BFS, RCM, DEGREE }
+
+    private final int[] oldToNew;
+    private final int[] newToOld;
+
+    private VertexOrdering(int[] newToOld) {
+        this.newToOld = newToOld;
+        this.oldToNew = new int[newToOld.length];
+        for (int node = 0; node < newToOld.length; node++) {
+            oldToNew[newToOld[node]] = node;
+        }
+    }
+
+    // Order the one-indexed nodes 1 ... nodes() of a graph
+    public static VertexOrdering compute(AdjacencyGraph graph, Strategy strategy) {
+        return compute(graph, strategy, 1, graph.nodes());
+    }
+
+    public static VertexOrdering compute(AdjacencyGraph graph, Strategy strategy, int first, int last) {
+        int nodes = graph.nodes();
+        if (first < 0 || last > nodes || first > last + 1) {
+            throw new IllegalArgumentException("Invalid node range " + first + " ... " + last);
+        }
+        CSRGraph in = CSRGraph.transpose(graph);
+
+        // Nodes outside the range keep their IDs
+        int[] newToOld = new int[nodes + 1];
+        for (int node = 0; node <= nodes; node++) {
+            newToOld[node] = node;
+        }
+
+        switch (strategy) {
+            case BFS:
+                breadthFirst(graph, in, newToOld, first, last, false);
+                break;
+            case RCM:
+                breadthFirst(graph, in, newToOld, first, last, true);
+                // Reverse the Cuthill-McKee order
+                for (int i = first, j = last; i < j; i++, j--) {
+                    int temp = newToOld[i];
+                    newToOld[i] = newToOld[j];
+                    newToOld[j] = temp;
+                }
+                break;
+            case DEGREE:
+                sortByDegree(graph, in, newToOld, first, last + 1, true);
+                break;
+        }
+        return new VertexOrdering(newToOld);
+    }
+
+    // Number of out and in edges of a node
+    private static int degree(AdjacencyGraph graph, CSRGraph in, int node) {
+        return graph.degree(node) + in.degree(node);
+    }
+
+    // Writes the breadth-first order of the range into newToOld[first ... last]. Every
+    // component is started from its lowest numbered node, or from its lowest degree node
+    // with neighbours visited by increasing degree for Cuthill-McKee
+    private static void breadthFirst(AdjacencyGraph graph, CSRGraph in, int[] newToOld,
+                                     int first, int last, boolean cuthillMcKee) {
+        int nodes = graph.nodes();
+        boolean[] visited = new boolean[nodes + 1];
+        int[] queue = newToOld;     // the queue doubles as the order itself
+        int tail = first;
+        AdjacencyGraph.Cursor out = graph.cursor();
+        AdjacencyGraph.Cursor back = in.cursor();
+
+        // Start nodes sorted by degree for Cuthill-McKee, by ID otherwise
+        int[] starts = new int[last - first + 1];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = first + i;
+        }
+        if (cuthillMcKee) sortByDegree(graph, in, starts, 0, starts.length, false);
+
+        for (int start : starts) {
+            if (visited[start]) continue;
+            visited[start] = true;
+            int head = tail;
+            queue[tail++] = start;
+
+            while (head < tail) {
+                int node = queue[head++];
+                int added = tail;
+                tail = enqueue(out, node, visited, queue, tail, first, last);
+                tail = enqueue(back, node, visited, queue, tail, first, last);
+                if (cuthillMcKee) sortByDegree(graph, in, queue, added, tail, false);
+            }
+        }
+    }
+
+    private static int enqueue(AdjacencyGraph.Cursor cursor, int node, boolean[] visited,
+                               int[] queue, int tail, int first, int last) {
+        cursor.reset(node);
+        while (cursor.next()) {
+            int next = cursor.node();
+            if (next >= first && next <= last && !visited[next]) {
+                visited[next] = true;
+                queue[tail++] = next;
+            }
+        }
+        return tail;
+    }
+
+    // Stable counting sort of nodes[from ... to - 1] by degree
+    private static void sortByDegree(AdjacencyGraph graph, CSRGraph in, int[] nodes,
+                                     int from, int to, boolean descending) {
+        if (to - from < 2) return;
+        int maxDegree = 0;
+        for (int i = from; i < to; i++) {
+            maxDegree = Math.max(maxDegree, degree(graph, in, nodes[i]));
+        }
+        int[] count = new int[maxDegree + 2];
+        for (int i = from; i < to; i++) {
+            int degree = degree(graph, in, nodes[i]);
+            count[(descending ? maxDegree - degree : degree) + 1]++;
+        }
+        for (int i = 1; i < count.length; i++) {
+            count[i] += count[i - 1];
+        }
+        int[] sorted = new int[to - from];
+        for (int i = from; i < to; i++) {
+            int degree = degree(graph, in, nodes[i]);
+            sorted[count[descending ? maxDegree - degree : degree]++] = nodes[i];
+        }
+        System.arraycopy(sorted, 0, nodes, from, sorted.length);
+    }
+
+    public int toNew(int node) {
+        return oldToNew[node];
+    }
+
+    public int toOld(int node) {
+        return newToOld[node];
+    }
+
+    // Translate an array indexed by new IDs (e.g. shortest paths) back to the original IDs
+    public int[] toOriginal(int[] values) {
+        int[] original = new int[values.length];
+        for (int node = 0; node < values.length; node++) {
+            original[newToOld[node]] = values[node];
+        }
+        return original;
+    }
+
+    // Rewrite a graph with the new IDs, keeping the order of every adjacency list
+    public CSRGraph relabel(AdjacencyGraph graph) {
+        int nodes = graph.nodes();
+        if (nodes + 1 != newToOld.length) {
+            throw new IllegalArgumentException("Ordering was computed for a graph with " + (newToOld.length - 1) + " nodes");
+        }
+        int[] offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            offsets[node + 1] = offsets[node] + graph.degree(newToOld[node]);
+        }
+
+        int[] targets = new int[offsets[nodes + 1]];
+        int[] weights = graph.isWeighted() ? new int[targets.length] : null;
+        AdjacencyGraph.Cursor cursor = graph.cursor();
+        for (int node = 0; node <= nodes; node++) {
+            int edge = offsets[node];
+            cursor.reset(newToOld[node]);
+            while (cursor.next()) {
+                targets[edge] = oldToNew[cursor.node()];
+                if (weights != null) weights[edge] = cursor.weight();
+                edge++;
+            }
+        }
+        return new CSRGraph(nodes, offsets, targets, weights);
+    }
+
+    // Average distance between the IDs of the two ends of an edge
+    private static double averageGap(CSRGraph graph) {
+        long total = 0;
+        for (int node = 0; node <= graph.nodes(); node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                total += Math.abs(graph.target(edge) - node);
+            }
+        }
+        return graph.edges() == 0 ? 0 : (double) total / graph.edges();
+    }
+
+    // Time a breadth-first sweep over the whole graph
+    private static long sweep(CSRGraph graph) {
+        long start = System.nanoTime();
+        boolean[] visited = new boolean[graph.nodes() + 1];
+        int[] queue = new int[graph.nodes() + 1];
+        for (int source = 0; source <= graph.nodes(); source++) {
+            if (visited[source]) continue;
+            int head = 0, tail = 0;
+            visited[source] = true;
+            queue[tail++] = source;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                    int next = graph.target(edge);
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    public static void main(String[] args) {
+        String filename = args.length > 0 ? args[0] : "Graphs/dijkstradata.txt";
+        int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        try {
+            CSRGraph graph = GraphFile.isBinary(filename)
+                    ? CSRGraph.from(new MappedGraph(filename))
+                    : ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.ADJACENCY, nodes);
+
+            System.out.println("Original: average edge gap " + averageGap(graph) + ", sweep " + sweep(graph) + " ms");
+            for (Strategy strategy : Strategy.values()) {
+                long start = System.currentTimeMillis();
+                VertexOrdering ordering = VertexOrdering.compute(graph, strategy);
+                CSRGraph relabelled = ordering.relabel(graph);
+                long stop = System.currentTimeMillis();
+                System.out.println(strategy + ": relabelling took " + (stop - start) + " ms, average edge gap "
+                        + averageGap(relabelled) + ", sweep " + sweep(relabelled) + " ms");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
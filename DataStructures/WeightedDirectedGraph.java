@@ -8,9 +8,11 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
-public class WeightedDirectedGraph {
+public class WeightedDirectedGraph implements AdjacencyGraph {
     // Custom edge class to store the endpoint of an edge along with the weight
     public static class Edge {
         private int node, weight;
@@ -26,6 +28,7 @@ public class WeightedDirectedGraph {
 
     private int nodes, edges;
     private ArrayList<List<Edge>> adjList;
+    private CSRGraph inEdges;   // cached reverse graph, dropped whenever a list is replaced
 
     public WeightedDirectedGraph(int N) {
         // Initialize a graph with N nodes
@@ -115,8 +118,61 @@ public class WeightedDirectedGraph {
         return adjList.get(node);
     }
 
+    public boolean isWeighted() {
+        return true;
+    }
+
+    public int degree(int node) {
+        return adjList.get(node).size();
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private List<Edge> list;
+            private Iterator<Edge> iterator;
+            private Edge edge;
+            private int index;
+
+            public void reset(int node) {
+                list = adjList.get(node);
+                // Lists handed over through addEdgeList may not be random access
+                iterator = (list instanceof RandomAccess) ? null : list.iterator();
+                index = -1;
+            }
+
+            public boolean next() {
+                if (iterator != null) {
+                    if (!iterator.hasNext()) return false;
+                    edge = iterator.next();
+                    return true;
+                }
+                if (++index >= list.size()) return false;
+                edge = list.get(index);
+                return true;
+            }
+
+            public int node() {
+                return edge.node;
+            }
+
+            public int weight() {
+                return edge.weight;
+            }
+        };
+    }
+
     public void addEdgeList(List<Edge> list, int index) {
         adjList.set(index, list);
+        inEdges = null;
+    }
+
+    // The reverse graph (every edge pointing back to its tail, same weights) as a CSRGraph,
+    // built on first use and cached. Lists changed through getEdgeList are not noticed.
+    public CSRGraph inEdges() {
+        if (inEdges == null) {
+            inEdges = CSRGraph.transpose(this);
+        }
+        return inEdges;
     }
 
     public void printGraph() {
@@ -11,7 +11,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public class WeightedUndirectedGraph {
+public class WeightedUndirectedGraph implements AdjacencyGraph {
     private int nodes, edges;
     private List<List<Edge>> adjList;
 
@@ -83,6 +83,45 @@ public class WeightedUndirectedGraph {
         return adjList.get(node);
     }
 
+    public int nodes() {
+        return this.nodes;
+    }
+
+    public boolean isWeighted() {
+        return true;
+    }
+
+    public int degree(int node) {
+        return adjList.get(node).size();
+    }
+
+    public Cursor cursor() {
+        return new Cursor() {
+            private List<Edge> list;
+            private Edge edge;
+            private int index;
+
+            public void reset(int node) {
+                list = adjList.get(node);
+                index = -1;
+            }
+
+            public boolean next() {
+                if (++index >= list.size()) return false;
+                edge = list.get(index);
+                return true;
+            }
+
+            public int node() {
+                return edge.getNode();
+            }
+
+            public int weight() {
+                return edge.getWeight();
+            }
+        };
+    }
+
     public void printGraph() {
         for (int i = 1; i <= this.nodes; i++) {
             System.out.print(i + " -> ");
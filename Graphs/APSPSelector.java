@@ -0,0 +1,48 @@
+/*
+ * Picks the all-pairs shortest path engine for a graph from its density.
+ *
+ * JohnsonAPSP costs one Bellman-Ford run plus N Dijkstra runs, roughly N * M heap updates,
+ * while FloydWarshallAPSP always does N^3 steps of a tight SIMD loop but no heap work at
+ * all. FW also needs the whole N x N matrix in memory. So FW is picked when the average
+ * degree is at least a fixed fraction of N and the matrix fits in an array, Johnson
+ * otherwise.
+ *
+ * computeAllPaths runs the chosen engine and hands the rows to a PathConsumer either way.
+ */
+
+package Graphs;
+
+import DataStructures.AdjacencyGraph;
+
+public class APSPSelector {
+    public enum Engine { JOHNSON, FLOYD_WARSHALL }
+
+    // FW wins once the average degree reaches about N / DENSE_RATIO. Measured on random
+    // graphs with 2048 nodes: N / 12 with negative weights (Johnson on a binary heap) and
+    // N / 8 with small positive ones (Johnson on Dial's buckets).
+    private static final int DENSE_RATIO = 10;
+    private static final int MAX_MATRIX_NODES = 46000;
+
+    private APSPSelector() {}
+
+    public static Engine choose(AdjacencyGraph graph) {
+        long nodes = graph.nodes();
+        if (nodes > MAX_MATRIX_NODES) return Engine.JOHNSON;
+        long edges = 0;
+        for (int node = 0; node <= nodes; node++) {
+            edges += graph.degree(node);
+        }
+        return edges * DENSE_RATIO >= nodes * nodes ? Engine.FLOYD_WARSHALL : Engine.JOHNSON;
+    }
+
+    // Run the engine picked for the graph. Returns false if the graph has a negative cycle.
+    public static boolean computeAllPaths(AdjacencyGraph graph, PathConsumer consumer) {
+        if (choose(graph) == Engine.FLOYD_WARSHALL) {
+            FloydWarshallAPSP floydWarshall = new FloydWarshallAPSP(graph);
+            if (!floydWarshall.computeAllPaths()) return false;
+            floydWarshall.rows(consumer);
+            return true;
+        }
+        return new JohnsonAPSP(graph).computeAllPaths(consumer);
+    }
+}
@@ -1,47 +1,126 @@
+/*
+ * Program to implement the Bellman-Ford shortest path algorithm, which also works with
+ * negative edge weights and detects negative cycles reachable from the source.
+ *
+ * Three modes are available:
+ * ROUNDS       the classic algorithm: every edge is relaxed in each of up to N rounds
+ *              Running Time: O(mn)
+ * QUEUE        a worklist (SPFA): only nodes whose distance improved are rescanned. They
+ *              wait in a circular deque with in-queue flags, so a node is queued at most
+ *              once at a time. Two heuristics keep the queue roughly sorted:
+ *              SLF (small label first) puts a node with a smaller distance than the front
+ *              at the front, and LLL (large label last) moves nodes above the average
+ *              distance in the queue to the back before they are scanned.
+ *              Negative cycles are found early: every N relaxations the parent pointers
+ *              are walked towards the root, and a cycle among them is always negative.
+ *              A path length counter per node (more than N - 1 edges means a cycle) is a
+ *              guarantee in between. Same worst case, but usually far fewer relaxations.
+ * PARALLEL     the rounds of ROUNDS, but run on all cores: the graph is flattened once into
+ *              primitive tail, head and weight arrays, and every round splits the edges into
+ *              ranges that are relaxed in parallel. New distances are lowered with an atomic
+ *              minimum into the next round's array, and the rounds stop as soon as one
+ *              changes nothing.
+ *
+ * Every mode keeps the parent of each node, i.e. the tail of the edge that last lowered its
+ * distance. Every cycle among the parent pointers is negative, and once a run reports a
+ * negative cycle there is at least one, so negativeCycle() and negativeCycles() read the
+ * offending cycles from the parents alone, without another pass over the edges.
+ * computeShortestPathWithCycles() keeps going past negative cycles: every node reachable
+ * from one gets a distance of Integer.MIN_VALUE, and all other distances are exact.
+ *
+ * computePotentials() finds the distances from a virtual node with a zero-weight edge to
+ * every node, as needed by Johnson's reweighting, without adding that node to the graph:
+ * every node simply starts out at distance 0.
+ */
+
 package Graphs;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
+import DataStructures.AdjacencyGraph;
+import DataStructures.AtomicIntArrays;
 import DataStructures.WeightedDirectedGraph;
-import DataStructures.WeightedDirectedGraph.Edge;
 
 public class BellmanFord {
-    private WeightedDirectedGraph graph;
+    private AdjacencyGraph graph;
+    private AdjacencyGraph.Cursor cursor;
     private int[] paths;
+    private int[] parents;      // previous node on the best path found, -1 for none
+    private long relaxations;   // edges looked at by the last run
     public record Result(boolean cycle, int[] paths) {};
+    public enum Mode { ROUNDS, QUEUE, PARALLEL }
+    private static final int CHUNK_EDGES = 1 << 14;    // fewest edges worth a parallel task
+    private static final int VIRTUAL = 0;   // source with a zero-weight edge to every node
+    private int[] tails, heads, weights;    // flat edge arrays for PARALLEL, built on first use
+
+    // A negative cycle: edge i goes from nodes[i] to nodes[i + 1] (wrapping around) with
+    // weight weights[i]
+    public record Cycle(int[] nodes, int[] weights) {
+        public long weight() {
+            long total = 0;
+            for (int weight : weights) total += weight;
+            return total;
+        }
+    };
 
     public BellmanFord(String filename) {
         graph = new WeightedDirectedGraph(filename);
+        cursor = graph.cursor();
     }
 
-    public BellmanFord(WeightedDirectedGraph graph) {
+    public BellmanFord(AdjacencyGraph graph) {
         this.graph = graph;
+        cursor = graph.cursor();
     }
 
     public Result computeShortestPath(int source) {
+        return computeShortestPath(source, Mode.ROUNDS);
+    }
+
+    // Distances from a virtual source with a zero-weight edge to every node. They are never
+    // positive, and any negative cycle in the graph is reported, reachable or not.
+    public Result computePotentials(Mode mode) {
+        return computeShortestPath(VIRTUAL, mode);
+    }
+
+    public Result computeShortestPath(int source, Mode mode) {
+        relaxations = 0;
+        if (mode == Mode.QUEUE) return computeWithQueue(source, false);
+        if (mode == Mode.PARALLEL) return computeInParallel(source);
+
         int nodes = graph.nodes();
         paths = new int[nodes + 1];
-        
+        parents = new int[nodes + 1];
+
         Arrays.fill(paths, Integer.MAX_VALUE);
-        paths[source] = 0;
+        Arrays.fill(parents, -1);
+        start(source);
 
         for(int i = 1; i <= nodes; i++) {
             boolean stable = true;
             int[] nextPaths = paths.clone();
 
             for(int j = 1; j <= nodes; j++) {
-                for(Edge edge : graph.getEdgeList(j)) {
+                cursor.reset(j);
+                while(cursor.next()) {
                     int tail = j;
-                    int head = edge.node();
+                    int head = cursor.node();
 
+                    relaxations++;
                     if(paths[tail] == Integer.MAX_VALUE) continue;
-                    nextPaths[head] = Math.min(nextPaths[head], paths[tail] + edge.weight());
-                    if(nextPaths[head] != paths[head]) {
+                    if(paths[tail] + cursor.weight() < nextPaths[head]) {
+                        nextPaths[head] = paths[tail] + cursor.weight();
+                        parents[head] = tail;
                         stable = false;
                     }
                 }
             }
-            if(stable) { 
+            if(stable) {
                 return new Result(false, nextPaths);
             }
 
@@ -51,16 +130,302 @@ public class BellmanFord {
         return new Result(true, null);
     }
 
+    // Like the QUEUE mode, but a negative cycle doesn't end the run: every node reachable
+    // from it gets a distance of Integer.MIN_VALUE, and the other nodes still get their
+    // exact distance. The result reports whether any cycle was found.
+    public Result computeShortestPathWithCycles(int source) {
+        relaxations = 0;
+        return computeWithQueue(source, true);
+    }
+
+    private Result computeWithQueue(int source, boolean pastCycles) {
+        int nodes = graph.nodes();
+        paths = new int[nodes + 1];
+        parents = new int[nodes + 1];
+        int[] lengths = new int[nodes + 1];     // number of edges on that path
+        boolean[] queued = new boolean[nodes + 1];
+        boolean[] unbounded = new boolean[nodes + 1];   // reachable from a negative cycle
+        boolean cycle = false;
+        int[] queue = new int[nodes + 1];       // circular deque, every node at most once
+        int front = 0, size = 0;
+        long sum = 0;                           // sum of the distances in the queue
+
+        Arrays.fill(paths, Integer.MAX_VALUE);
+        Arrays.fill(parents, -1);
+        start(source);
+        for (int node = 1; node <= nodes; node++) {
+            if (paths[node] == 0) {
+                queue[size++] = node;
+                queued[node] = true;
+            }
+        }
+        long nextCheck = nodes;
+
+        while (size > 0) {
+            // LLL: nodes above the average distance go to the back
+            for (int moved = 0; moved < size && (long) paths[queue[front]] * size > sum; moved++) {
+                queue[(front + size) % queue.length] = queue[front];
+                front = (front + 1) % queue.length;
+            }
+            int tail = queue[front];
+            front = (front + 1) % queue.length;
+            size--;
+            queued[tail] = false;
+            sum -= paths[tail];
+            if (unbounded[tail]) continue;
+
+            boolean found = false;
+            cursor.reset(tail);
+            while (cursor.next()) {
+                relaxations++;
+                int head = cursor.node();
+                int distance = paths[tail] + cursor.weight();
+                if (distance >= paths[head] || unbounded[head]) continue;
+
+                if (queued[head]) sum -= paths[head] - distance;
+                paths[head] = distance;
+                parents[head] = tail;
+                lengths[head] = lengths[tail] + 1;
+                if (lengths[head] >= nodes && cycleAbove(head) != -1) {
+                    found = true;
+                    break;
+                }
+
+                if (!queued[head]) {
+                    queued[head] = true;
+                    sum += distance;
+                    if (size > 0 && distance < paths[queue[front]]) {
+                        // SLF: smaller than the front, so it goes first
+                        front = (front - 1 + queue.length) % queue.length;
+                        queue[front] = head;
+                    } else {
+                        queue[(front + size) % queue.length] = head;
+                    }
+                    size++;
+                }
+            }
+
+            // Look for a cycle among the parent pointers every N relaxations
+            if (!found && relaxations >= nextCheck) {
+                found = !findCycles(unbounded, false).isEmpty();
+                nextCheck = relaxations + nodes;
+            }
+            if (found) {
+                if (!pastCycles) return new Result(true, null);
+                cycle = true;
+                for (Cycle negative : findCycles(unbounded, true)) {
+                    markReachable(negative.nodes()[0], unbounded);
+                }
+            }
+        }
+
+        if (cycle) {
+            for (int node = 1; node <= nodes; node++) {
+                if (unbounded[node]) paths[node] = Integer.MIN_VALUE;
+            }
+        }
+        return new Result(cycle, paths);
+    }
+
+    // Put the source at distance 0, or every node for the virtual source
+    private void start(int source) {
+        if (source == VIRTUAL) {
+            Arrays.fill(paths, 1, graph.nodes() + 1, 0);
+        } else {
+            paths[source] = 0;
+        }
+    }
+
+    // Mark every node that can be reached from the given one, which lies on a negative cycle
+    private void markReachable(int start, boolean[] unbounded) {
+        AdjacencyGraph.Cursor edges = graph.cursor();
+        int[] stack = new int[graph.nodes() + 1];
+        int top = 0;
+        unbounded[start] = true;
+        stack[top++] = start;
+        while (top > 0) {
+            edges.reset(stack[--top]);
+            while (edges.next()) {
+                int head = edges.node();
+                if (unbounded[head]) continue;
+                unbounded[head] = true;
+                stack[top++] = head;
+            }
+        }
+    }
+
+    // Copy every edge into the flat arrays, in parallel over ranges of nodes
+    private void flattenEdges() {
+        int nodes = graph.nodes();
+        int[] offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            offsets[node + 1] = offsets[node] + graph.degree(node);
+        }
+        int edges = offsets[nodes + 1];
+        tails = new int[edges];
+        heads = new int[edges];
+        weights = new int[edges];
+
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            AdjacencyGraph.Cursor edgeCursor = graph.cursor();
+            for (int node = (int) ((long) chunk * (nodes + 1) / chunks); node < (long) (chunk + 1) * (nodes + 1) / chunks; node++) {
+                int edge = offsets[node];
+                edgeCursor.reset(node);
+                while (edgeCursor.next()) {
+                    tails[edge] = node;
+                    heads[edge] = edgeCursor.node();
+                    weights[edge++] = edgeCursor.weight();
+                }
+            }
+        });
+    }
+
+    private Result computeInParallel(int source) {
+        if (tails == null) flattenEdges();
+        int nodes = graph.nodes();
+        int edges = tails.length;
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, edges / CHUNK_EDGES));
+        // Distance and parent of a node packed into one long, so both change together
+        long[] pairs = new long[nodes + 1];
+        long[] nextPairs = new long[nodes + 1];
+        AtomicBoolean changed = new AtomicBoolean();
+
+        Arrays.fill(pairs, AtomicIntArrays.pack(Integer.MAX_VALUE, -1));
+        paths = new int[nodes + 1];
+        Arrays.fill(paths, Integer.MAX_VALUE);
+        start(source);
+        for (int node = 0; node <= nodes; node++) {
+            if (paths[node] == 0) pairs[node] = AtomicIntArrays.pack(0, -1);
+        }
+
+        boolean cycle = true;
+        for (int i = 1; i <= nodes; i++) {
+            System.arraycopy(pairs, 0, nextPairs, 0, nodes + 1);
+            changed.set(false);
+            long[] current = pairs, next = nextPairs;
+
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                boolean lowered = false;
+                for (int edge = (int) ((long) chunk * edges / chunks); edge < (long) (chunk + 1) * edges / chunks; edge++) {
+                    int distance = AtomicIntArrays.key(current[tails[edge]]);
+                    if (distance == Integer.MAX_VALUE) continue;
+                    if (AtomicIntArrays.minimizeKey(next, heads[edge], distance + weights[edge], tails[edge])) {
+                        lowered = true;
+                    }
+                }
+                if (lowered) changed.set(true);
+            });
+            relaxations += edges;
+
+            // Swap the arrays for the next round
+            nextPairs = pairs;
+            pairs = next;
+            if (!changed.get()) {
+                cycle = false;
+                break;
+            }
+        }
+
+        parents = new int[nodes + 1];
+        for (int node = 0; node <= nodes; node++) {
+            paths[node] = AtomicIntArrays.key(pairs[node]);
+            parents[node] = AtomicIntArrays.payload(pairs[node]);
+        }
+        return cycle ? new Result(true, null) : new Result(false, paths);
+    }
+
+    // Node on a cycle of parent pointers above the given node, -1 if there is none. A walk
+    // of N steps that doesn't reach the source can only have ended up on a cycle.
+    private int cycleAbove(int node) {
+        int nodes = graph.nodes();
+        for (int step = 0; step < nodes && node != -1; step++) {
+            node = parents[node];
+        }
+        return node;
+    }
+
+    // Walk from every node towards the source; meeting a node of the current walk again
+    // means the parent pointers contain a cycle, which always has a negative weight.
+    // Nodes marked as skipped end a walk like the source does.
+    private List<Cycle> findCycles(boolean[] skip, boolean all) {
+        int nodes = graph.nodes();
+        List<Cycle> cycles = new ArrayList<>();
+        int[] walk = new int[nodes + 1];    // start of the walk that first visited a node
+        for (int start = 1; start <= nodes; start++) {
+            if (walk[start] != 0 || paths[start] == Integer.MAX_VALUE) continue;
+            int node = start;
+            while (node != -1 && walk[node] == 0 && (skip == null || !skip[node])) {
+                walk[node] = start;
+                node = parents[node];
+            }
+            if (node != -1 && walk[node] == start) {
+                cycles.add(cycleThrough(node));
+                if (!all) break;
+            }
+        }
+        return cycles;
+    }
+
+    // Follow the parent pointers around the cycle through the given node
+    private Cycle cycleThrough(int node) {
+        int length = 1;
+        for (int v = parents[node]; v != node; v = parents[v]) length++;
+
+        // The parents lead backwards, so fill the cycle from the end
+        int[] nodes = new int[length];
+        int[] edgeWeights = new int[length];
+        int v = node;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes[i] = parents[v];
+            edgeWeights[i] = edgeWeight(parents[v], v);
+            v = parents[v];
+        }
+        return new Cycle(nodes, edgeWeights);
+    }
+
+    // Weight of the lightest edge from tail to head
+    private int edgeWeight(int tail, int head) {
+        AdjacencyGraph.Cursor edges = graph.cursor();
+        int weight = Integer.MAX_VALUE;
+        edges.reset(tail);
+        while (edges.next()) {
+            if (edges.node() == head) weight = Math.min(weight, edges.weight());
+        }
+        return weight;
+    }
+
+    // A negative cycle found by the last run, null if it found none
+    public Cycle negativeCycle() {
+        List<Cycle> cycles = findCycles(null, false);
+        return cycles.isEmpty() ? null : cycles.get(0);
+    }
+
+    // Every negative cycle among the parent pointers of the last run. After
+    // computeShortestPathWithCycles() these are all the cycles it ran into.
+    public List<Cycle> negativeCycles() {
+        return findCycles(null, true);
+    }
+
+    // Number of edges looked at by the last run
+    public long relaxations() {
+        return relaxations;
+    }
+
     public static void main(String[] args) {
         String filename = args[0];
+        Mode mode = args.length > 1 ? Mode.valueOf(args[1]) : Mode.ROUNDS;
         BellmanFord obj = new BellmanFord(filename);
-        Result result = obj.computeShortestPath(1);
+        Result result = obj.computeShortestPath(1, mode);
+        System.out.println("Relaxations: " + obj.relaxations());
 
         if(result.cycle()) {
-            System.out.println("Graph contains a negative cycle.");
+            Cycle cycle = obj.negativeCycle();
+            System.out.println("Graph contains a negative cycle: " + Arrays.toString(cycle.nodes())
+                    + " of weight " + cycle.weight());
             return;
         }
-        
+
         int shortest = Integer.MAX_VALUE;
         for(int path : result.paths()) {
             if (shortest > path) shortest = path;
@@ -69,4 +434,4 @@ public class BellmanFord {
         System.out.println("Shortest path is: " + shortest);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+/*
+ * Program to implement a bidirectional Dijkstra search for shortest paths between a single
+ * pair of nodes.
+ *
+ * A forward search runs from the source on the graph, and a backward search runs from the
+ * target on the reverse graph (WeightedDirectedGraph.inEdges()). Each step settles one node
+ * on the side whose next node is closer. Whenever a node settled on one side has already
+ * been reached by the other, the two halves form a path and the best such length (mu) is
+ * kept. Once
+ *      next forward distance + next backward distance >= mu
+ * no path through an unsettled node can be shorter, and the search stops. The two balls
+ * around source and target together are usually much smaller than the single ball a
+ * one-sided search grows until it reaches the target, roughly halving the settled nodes.
+ *
+ * Both directions are reusable Dijkstra engines, so one object answers any number of queries.
+ * Running Time: O((m + n)log n) in the worst case, like Dijkstra
+ */
+
+package Graphs;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.IndexedPriorityQueue;
+import DataStructures.WeightedDirectedGraph;
+
+public class BidirectionalDijkstra {
+    private Dijkstra forward, backward;
+    private int target;     // target of the last query
+    private int meeting;    // node on the best path found by the last query, -1 if none
+    private int shortest;   // length of that path
+    private int settled;    // nodes settled by the last query on both sides
+
+    public BidirectionalDijkstra(WeightedDirectedGraph graph) {
+        this(graph, graph.inEdges(), IndexedPriorityQueue.Type.BINARY);
+    }
+
+    // Any graph together with its reverse, e.g. a CSRGraph and its inEdges()
+    public BidirectionalDijkstra(AdjacencyGraph graph, AdjacencyGraph reverse, IndexedPriorityQueue.Type heapType) {
+        forward = new Dijkstra(graph, heapType);
+        backward = new Dijkstra(reverse, heapType);
+    }
+
+    // Length of the shortest path from source to target, Integer.MAX_VALUE if there is none
+    public int shortestPath(int sourceNode, int targetNode) {
+        target = targetNode;
+        forward.begin(sourceNode);
+        backward.begin(targetNode);
+        meeting = -1;
+        shortest = Integer.MAX_VALUE;
+        settled = 0;
+
+        while (!forward.isFinished() && !backward.isFinished()) {
+            // Stop once no unsettled node can lie on a shorter path
+            if ((long) forward.topKey() + backward.topKey() >= shortest) break;
+
+            // Grow the side whose next node is closer
+            boolean fromSource = forward.topKey() <= backward.topKey();
+            Dijkstra side = fromSource ? forward : backward;
+            Dijkstra other = fromSource ? backward : forward;
+            int node = side.settleNext();
+            settled++;
+
+            // Both searches have reached the node, join their paths
+            int rest = other.tentativeDistance(node);
+            if (rest != Integer.MAX_VALUE) {
+                long length = (long) side.distance(node) + rest;
+                if (length < shortest) {
+                    shortest = (int) length;
+                    meeting = node;
+                }
+            }
+        }
+        return shortest;
+    }
+
+    // Nodes settled by the last query, forward and backward together
+    public int settledNodes() {
+        return settled;
+    }
+
+    // Nodes on the shortest path found by the last query, empty if there is none
+    public int[] path() {
+        if (meeting == -1) return new int[0];
+
+        // Count the nodes from the source to the meeting node and on to the target
+        int front = 0, length;
+        for (int node = meeting; node != -1; node = forward.parent(node)) front++;
+        length = front;
+        for (int node = meeting; node != target; node = backward.parent(node)) length++;
+
+        // Forward parents lead back to the source, backward parents on to the target
+        int[] result = new int[length];
+        int index = front;
+        for (int node = meeting; node != -1; node = forward.parent(node)) {
+            result[--index] = node;
+        }
+        index = front;
+        for (int node = meeting; node != target; ) {
+            node = backward.parent(node);
+            result[index++] = node;
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        int nodes = 200;
+        String filename = args.length > 0 ? args[0] : "Graphs/dijkstradata.txt";
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        WeightedDirectedGraph graph = new WeightedDirectedGraph(nodes, filename);
+        BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(graph);
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        // Compare the settled nodes against a one-sided search that stops at the target
+        Random random = new Random(1);
+        long oneSided = 0, twoSided = 0;
+        for (int i = 0; i < queries; i++) {
+            int source = 1 + random.nextInt(nodes);
+            int target = 1 + random.nextInt(nodes);
+            oneSided += dijkstra.search(source, target);
+            int length = bidirectional.shortestPath(source, target);
+            twoSided += bidirectional.settledNodes();
+            if (length != dijkstra.distance(target)) {
+                System.out.println("Mismatch for " + source + " -> " + target);
+            }
+        }
+        System.out.println("Average settled nodes, Dijkstra: " + (double) oneSided / queries
+                + ", bidirectional: " + (double) twoSided / queries);
+        System.out.println("Path from 1 to 197 (" + bidirectional.shortestPath(1, 197) + "): "
+                + Arrays.toString(bidirectional.path()));
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Program to implement Contraction Hierarchies for very fast shortest path queries between
+ * pairs of nodes on a static graph.
+ *
+ * Preprocessing contracts the nodes one at a time, from least to most important. Contracting
+ * a node v removes it from the graph, and for every pair of remaining neighbours u -> v -> x
+ * whose path through v is the only shortest one, a shortcut edge u -> x is added with the
+ * weight of both edges. A local Dijkstra from u that avoids v (the witness search) decides
+ * whether another path is as short; it is limited in distance and settled nodes, so it may
+ * add a few unnecessary shortcuts but never misses a needed one.
+ * The order is chosen lazily by the edge difference
+ *      shortcuts added - edges removed + neighbours already contracted
+ * where the node at the top of the queue is re-evaluated and only contracted if it is still
+ * the smallest.
+ *
+ * Every edge then leads either up (to a node contracted later) or down. The upward edges
+ * (up) and the downward edges stored at their lower end (down) are kept in two CSRGraphs,
+ * with the contracted node of every shortcut in a via array. A query runs Dijkstra upwards
+ * from the source on up and from the target on down. Both only see a tiny part of the graph,
+ * and they meet at the highest node of the shortest path. Shortcuts on the path are unpacked
+ * recursively through their via nodes.
+ *
+ * The hierarchy can be saved to and loaded from a file. Edge weights must be non-negative.
+ */
+
+package Graphs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.CSRGraph;
+import DataStructures.IndexedMinHeap;
+import DataStructures.WeightedDirectedGraph;
+
+public class ContractionHierarchy {
+    private static final int MAGIC = 0x43484331;    // "CHC1", first int of a hierarchy file
+    private static final int WITNESS_LIMIT = 500;   // nodes a witness search may settle
+
+    private int nodes;
+    private int[] rank;         // position of every node in the contraction order
+    private CSRGraph up, down;
+    private int[] upVia, downVia;   // contracted node of every shortcut, -1 for original edges
+    private Dijkstra forward, backward;
+    private int meeting;        // highest node of the last query's path, -1 if none
+
+    // Contract any one-indexed graph, e.g. a WeightedDirectedGraph
+    public ContractionHierarchy(AdjacencyGraph graph) {
+        new Contraction(graph).run();
+        createEngines();
+    }
+
+    private ContractionHierarchy(int nodes, int[] rank, CSRGraph up, int[] upVia, CSRGraph down, int[] downVia) {
+        this.nodes = nodes;
+        this.rank = rank;
+        this.up = up;
+        this.upVia = upVia;
+        this.down = down;
+        this.downVia = downVia;
+        createEngines();
+    }
+
+    private void createEngines() {
+        forward = new Dijkstra(up);
+        backward = new Dijkstra(down);
+    }
+
+    // The graph while it is being contracted: growable in and out lists for every node,
+    // where entries of contracted nodes are skipped instead of removed
+    private class Contraction {
+        private int[][] outNodes, outWeights, outVia;
+        private int[][] inNodes, inWeights, inVia;
+        private int[] outSize, inSize;
+        private boolean[] contracted;
+        private int[] deleted;      // contracted neighbours of every node
+
+        // final upward and downward edges, collected as every node is contracted
+        private int[][] upNodes, upWeights, upVias, downNodes, downWeights, downVias;
+
+        // witness search state, reset with epoch stamps
+        private IndexedMinHeap heap;
+        private int[] distance, visited;
+        private int epoch;
+
+        private Contraction(AdjacencyGraph graph) {
+            nodes = graph.nodes();
+            outNodes = new int[nodes + 1][];
+            outWeights = new int[nodes + 1][];
+            outVia = new int[nodes + 1][];
+            inNodes = new int[nodes + 1][];
+            inWeights = new int[nodes + 1][];
+            inVia = new int[nodes + 1][];
+            outSize = new int[nodes + 1];
+            inSize = new int[nodes + 1];
+            for (int node = 0; node <= nodes; node++) {
+                outNodes[node] = new int[4];
+                outWeights[node] = new int[4];
+                outVia[node] = new int[4];
+                inNodes[node] = new int[4];
+                inWeights[node] = new int[4];
+                inVia[node] = new int[4];
+            }
+            contracted = new boolean[nodes + 1];
+            deleted = new int[nodes + 1];
+            upNodes = new int[nodes + 1][];
+            upWeights = new int[nodes + 1][];
+            upVias = new int[nodes + 1][];
+            downNodes = new int[nodes + 1][];
+            downWeights = new int[nodes + 1][];
+            downVias = new int[nodes + 1][];
+            heap = new IndexedMinHeap(nodes);
+            distance = new int[nodes + 1];
+            visited = new int[nodes + 1];
+
+            AdjacencyGraph.Cursor cursor = graph.cursor();
+            for (int node = 1; node <= nodes; node++) {
+                cursor.reset(node);
+                while (cursor.next()) {
+                    if (cursor.node() != node) addEdge(node, cursor.node(), cursor.weight(), -1);
+                }
+            }
+        }
+
+        // Add an edge, or lower the weight of an existing edge between the same nodes
+        private void addEdge(int tail, int head, int weight, int via) {
+            for (int i = 0; i < outSize[tail]; i++) {
+                if (outNodes[tail][i] == head) {
+                    if (weight < outWeights[tail][i]) {
+                        outWeights[tail][i] = weight;
+                        outVia[tail][i] = via;
+                        for (int j = 0; j < inSize[head]; j++) {
+                            if (inNodes[head][j] == tail) {
+                                inWeights[head][j] = weight;
+                                inVia[head][j] = via;
+                            }
+                        }
+                    }
+                    return;
+                }
+            }
+            if (outSize[tail] == outNodes[tail].length) {
+                int capacity = outSize[tail] * 2;
+                outNodes[tail] = Arrays.copyOf(outNodes[tail], capacity);
+                outWeights[tail] = Arrays.copyOf(outWeights[tail], capacity);
+                outVia[tail] = Arrays.copyOf(outVia[tail], capacity);
+            }
+            outNodes[tail][outSize[tail]] = head;
+            outWeights[tail][outSize[tail]] = weight;
+            outVia[tail][outSize[tail]++] = via;
+
+            if (inSize[head] == inNodes[head].length) {
+                int capacity = inSize[head] * 2;
+                inNodes[head] = Arrays.copyOf(inNodes[head], capacity);
+                inWeights[head] = Arrays.copyOf(inWeights[head], capacity);
+                inVia[head] = Arrays.copyOf(inVia[head], capacity);
+            }
+            inNodes[head][inSize[head]] = tail;
+            inWeights[head][inSize[head]] = weight;
+            inVia[head][inSize[head]++] = via;
+        }
+
+        private void run() {
+            // Order every node by its initial priority
+            IndexedMinHeap order = new IndexedMinHeap(nodes);
+            for (int node = 1; node <= nodes; node++) {
+                order.decreaseKey(node, priority(node));
+            }
+            rank = new int[nodes + 1];
+
+            int next = 1;
+            while (!order.isEmpty()) {
+                int node = order.peekMinNode();
+                order.extractMinKey();
+
+                // Lazy update: put the node back if it is no longer the least important
+                int priority = priority(node);
+                if (!order.isEmpty() && priority > order.peekNode(order.peekMinNode())) {
+                    order.insertNode(node, priority);
+                    continue;
+                }
+                rank[node] = next++;
+                contract(node);
+            }
+            buildGraphs();
+        }
+
+        private int priority(int node) {
+            int degree = 0;
+            for (int i = 0; i < outSize[node]; i++) {
+                if (!contracted[outNodes[node][i]]) degree++;
+            }
+            for (int i = 0; i < inSize[node]; i++) {
+                if (!contracted[inNodes[node][i]]) degree++;
+            }
+            return shortcuts(node, false) - degree + deleted[node];
+        }
+
+        private void contract(int node) {
+            // All remaining edges of the node are final, they lead to higher ranked nodes
+            upNodes[node] = remaining(outNodes[node], outSize[node]);
+            upWeights[node] = remaining(outNodes[node], outWeights[node], outSize[node]);
+            upVias[node] = remaining(outNodes[node], outVia[node], outSize[node]);
+            downNodes[node] = remaining(inNodes[node], inSize[node]);
+            downWeights[node] = remaining(inNodes[node], inWeights[node], inSize[node]);
+            downVias[node] = remaining(inNodes[node], inVia[node], inSize[node]);
+
+            shortcuts(node, true);
+            contracted[node] = true;
+            for (int neighbour : upNodes[node]) deleted[neighbour]++;
+            for (int neighbour : downNodes[node]) deleted[neighbour]++;
+        }
+
+        private int[] remaining(int[] neighbours, int size) {
+            return remaining(neighbours, neighbours, size);
+        }
+
+        // Values of the entries whose neighbour is not contracted yet
+        private int[] remaining(int[] neighbours, int[] values, int size) {
+            int count = 0;
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                if (!contracted[neighbours[i]]) result[count++] = values[i];
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        // Count (or add) the shortcuts needed to contract a node
+        private int shortcuts(int node, boolean add) {
+            int count = 0;
+            for (int i = 0; i < inSize[node]; i++) {
+                int tail = inNodes[node][i];
+                if (contracted[tail]) continue;
+                int toNode = inWeights[node][i];
+
+                // Longest path through the node bounds the witness search
+                int limit = 0;
+                for (int j = 0; j < outSize[node]; j++) {
+                    if (!contracted[outNodes[node][j]]) limit = Math.max(limit, toNode + outWeights[node][j]);
+                }
+                witnessSearch(tail, node, limit);
+
+                for (int j = 0; j < outSize[node]; j++) {
+                    int head = outNodes[node][j];
+                    if (contracted[head] || head == tail) continue;
+                    int through = toNode + outWeights[node][j];
+                    if (visited[head] == epoch && distance[head] <= through) continue;
+                    count++;
+                    if (add) addEdge(tail, head, through, node);
+                }
+            }
+            return count;
+        }
+
+        // Dijkstra from the source that avoids the node being contracted and gives up
+        // beyond the distance limit or after settling WITNESS_LIMIT nodes
+        private void witnessSearch(int source, int avoid, int limit) {
+            epoch++;
+            heap.clear();
+            visited[source] = epoch;
+            distance[source] = 0;
+            heap.insertNode(source, 0);
+
+            int settled = 0;
+            while (!heap.isEmpty() && settled++ < WITNESS_LIMIT) {
+                int node = heap.peekMinNode();
+                int current = heap.extractMinKey();
+                if (current > limit) break;
+
+                for (int i = 0; i < outSize[node]; i++) {
+                    int next = outNodes[node][i];
+                    if (next == avoid || contracted[next]) continue;
+                    int candidate = current + outWeights[node][i];
+                    if (visited[next] != epoch) {
+                        visited[next] = epoch;
+                        distance[next] = candidate;
+                        heap.insertNode(next, candidate);
+                    } else if (candidate < distance[next] && heap.contains(next)) {
+                        distance[next] = candidate;
+                        heap.decreaseKey(next, candidate);
+                    }
+                }
+            }
+        }
+
+        // Flatten the collected edges into the upward and downward CSR graphs
+        private void buildGraphs() {
+            int[] offsets = new int[nodes + 2];
+            for (int node = 1; node <= nodes; node++) {
+                offsets[node + 1] = offsets[node] + upNodes[node].length;
+            }
+            upVia = new int[offsets[nodes + 1]];
+            up = new CSRGraph(nodes, offsets, flatten(upNodes, offsets), flatten(upWeights, offsets));
+            copyInto(upVias, offsets, upVia);
+
+            offsets = new int[nodes + 2];
+            for (int node = 1; node <= nodes; node++) {
+                offsets[node + 1] = offsets[node] + downNodes[node].length;
+            }
+            downVia = new int[offsets[nodes + 1]];
+            down = new CSRGraph(nodes, offsets, flatten(downNodes, offsets), flatten(downWeights, offsets));
+            copyInto(downVias, offsets, downVia);
+        }
+
+        private int[] flatten(int[][] lists, int[] offsets) {
+            int[] result = new int[offsets[nodes + 1]];
+            copyInto(lists, offsets, result);
+            return result;
+        }
+
+        private void copyInto(int[][] lists, int[] offsets, int[] result) {
+            for (int node = 1; node <= nodes; node++) {
+                System.arraycopy(lists[node], 0, result, offsets[node], lists[node].length);
+            }
+        }
+    }
+
+    // Length of the shortest path from source to target, Integer.MAX_VALUE if there is none
+    public int distance(int sourceNode, int targetNode) {
+        forward.begin(sourceNode);
+        backward.begin(targetNode);
+        meeting = -1;
+        int shortest = Integer.MAX_VALUE;
+
+        // Both searches only go upwards, each stops once its next node is beyond the best path
+        while (true) {
+            boolean forwardOpen = !forward.isFinished() && forward.topKey() < shortest;
+            boolean backwardOpen = !backward.isFinished() && backward.topKey() < shortest;
+            if (!forwardOpen && !backwardOpen) break;
+
+            boolean fromSource = forwardOpen && (!backwardOpen || forward.topKey() <= backward.topKey());
+            Dijkstra side = fromSource ? forward : backward;
+            Dijkstra other = fromSource ? backward : forward;
+            int node = side.settleNext();
+
+            int rest = other.tentativeDistance(node);
+            if (rest != Integer.MAX_VALUE && (long) side.distance(node) + rest < shortest) {
+                shortest = side.distance(node) + rest;
+                meeting = node;
+            }
+        }
+        return shortest;
+    }
+
+    // Nodes on the shortest path from source to target in the original graph, empty if
+    // there is none
+    public int[] path(int sourceNode, int targetNode) {
+        distance(sourceNode, targetNode);
+        if (meeting == -1) return new int[0];
+
+        // Path in the hierarchy: up from the source to the meeting node, then down
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        for (int node = meeting; node != targetNode; ) {
+            node = backward.parent(node);
+            pending.addLast(node);
+        }
+        pending.push(meeting);
+        int node = meeting;
+        while (node != sourceNode) {
+            node = forward.parent(node);
+            pending.push(node);
+        }
+
+        // Replace every shortcut u -> x by u -> via -> x until only original edges are left
+        int[] result = new int[16];
+        int length = 0;
+        int current = pending.pop();
+        result[length++] = current;
+        while (!pending.isEmpty()) {
+            int next = pending.peek();
+            int via = via(current, next);
+            if (via == -1) {
+                if (length == result.length) result = Arrays.copyOf(result, length * 2);
+                result[length++] = next;
+                current = pending.pop();
+            } else {
+                pending.push(via);
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    // Contracted node of the edge tail -> head in the hierarchy, -1 for an original edge
+    private int via(int tail, int head) {
+        if (rank[tail] < rank[head]) {
+            for (int edge = up.firstEdge(tail); edge < up.endEdge(tail); edge++) {
+                if (up.target(edge) == head) return upVia[edge];
+            }
+        } else {
+            for (int edge = down.firstEdge(head); edge < down.endEdge(head); edge++) {
+                if (down.target(edge) == tail) return downVia[edge];
+            }
+        }
+        throw new IllegalStateException("No edge " + tail + " -> " + head + " in the hierarchy");
+    }
+
+    // Number of shortcuts added by the contraction
+    public int shortcuts() {
+        int count = 0;
+        for (int via : upVia) if (via != -1) count++;
+        for (int via : downVia) if (via != -1) count++;
+        return count;
+    }
+
+    // Write the contraction order and both graphs to a file
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(nodes);
+            for (int node = 0; node <= nodes; node++) out.writeInt(rank[node]);
+            writeGraph(out, up, upVia);
+            writeGraph(out, down, downVia);
+        }
+    }
+
+    private void writeGraph(DataOutputStream out, CSRGraph graph, int[] via) throws IOException {
+        out.writeInt(graph.edges());
+        for (int node = 0; node <= nodes + 1; node++) {
+            out.writeInt(node <= nodes ? graph.firstEdge(node) : graph.edges());
+        }
+        for (int edge = 0; edge < graph.edges(); edge++) {
+            out.writeInt(graph.target(edge));
+            out.writeInt(graph.weight(edge));
+            out.writeInt(via[edge]);
+        }
+    }
+
+    // Read a hierarchy written by save()
+    public static ContractionHierarchy load(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Given file " + filename + " is not a contraction hierarchy file.");
+            }
+            int nodes = in.readInt();
+            int[] rank = new int[nodes + 1];
+            for (int node = 0; node <= nodes; node++) rank[node] = in.readInt();
+
+            int[][] via = new int[2][];
+            CSRGraph up = readGraph(in, nodes, via, 0);
+            CSRGraph down = readGraph(in, nodes, via, 1);
+            return new ContractionHierarchy(nodes, rank, up, via[0], down, via[1]);
+        }
+    }
+
+    private static CSRGraph readGraph(DataInputStream in, int nodes, int[][] via, int index) throws IOException {
+        int edges = in.readInt();
+        int[] offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes + 1; node++) offsets[node] = in.readInt();
+        int[] targets = new int[edges];
+        int[] weights = new int[edges];
+        via[index] = new int[edges];
+        for (int edge = 0; edge < edges; edge++) {
+            targets[edge] = in.readInt();
+            weights[edge] = in.readInt();
+            via[index][edge] = in.readInt();
+        }
+        return new CSRGraph(nodes, offsets, targets, weights);
+    }
+
+    public static void main(String[] args) {
+        int nodes = 200;
+        String filename = args.length > 0 ? args[0] : "Graphs/dijkstradata.txt";
+        String hierarchyFile = args.length > 1 ? args[1] : "hierarchy.bin";
+        WeightedDirectedGraph graph = new WeightedDirectedGraph(nodes, filename);
+
+        try {
+            long start = System.currentTimeMillis();
+            ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+            hierarchy.save(hierarchyFile);
+            long stop = System.currentTimeMillis();
+            System.out.println("Contracting the graph took: " + (stop - start) + " ms, shortcuts: " + hierarchy.shortcuts());
+            hierarchy = ContractionHierarchy.load(hierarchyFile);
+
+            // Compare query times against Dijkstra stopping at the target
+            Dijkstra dijkstra = new Dijkstra(graph);
+            Random random = new Random(1);
+            int queries = 10000;
+            long plain = 0, contracted = 0;
+            for (int i = 0; i < queries; i++) {
+                int source = 1 + random.nextInt(nodes);
+                int target = 1 + random.nextInt(nodes);
+                start = System.nanoTime();
+                int expected = dijkstra.shortestPath(source, target);
+                plain += System.nanoTime() - start;
+                start = System.nanoTime();
+                int length = hierarchy.distance(source, target);
+                contracted += System.nanoTime() - start;
+                if (length != expected) {
+                    System.out.println("Mismatch for " + source + " -> " + target);
+                }
+            }
+            System.out.println("Average query time, Dijkstra: " + plain / queries / 1000.0
+                    + " us, contraction hierarchy: " + contracted / queries / 1000.0 + " us");
+            System.out.println("Path from 1 to 197: " + Arrays.toString(hierarchy.path(1, 197)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
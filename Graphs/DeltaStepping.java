@@ -0,0 +1,323 @@
+/*
+ * Program to implement the parallel delta-stepping single source shortest path algorithm.
+ *
+ * Instead of settling one node at a time like Dijkstra, nodes are grouped into buckets of
+ * width delta by their tentative distance, and all nodes of the lowest bucket are processed
+ * at once, in parallel:
+ *      1. Light edges (weight <= delta) of the bucket are relaxed over and over until no node
+ *         falls back into it. They can only lead into the current or a later bucket.
+ *      2. Heavy edges (weight > delta) of every node that was in the bucket are relaxed once,
+ *         since they always lead into a later bucket.
+ * Distances are lowered with an atomic compare-and-set minimum, and every node whose distance
+ * drops is appended to a bin of its new bucket. Bins are owned by the task that fills them,
+ * so no locking is needed. Since no edge reaches further than maxWeight / delta + 1 buckets
+ * ahead, the buckets are kept in a small cyclic array, capped at MAX_BUCKETS so that a few
+ * outlier weights don't blow it up. Nodes that land beyond the end of the array go to an
+ * overflow bin of their task and are moved into the array once it has advanced far enough.
+ * Bins are created on their first node, and a count of the non-empty bins of every bucket
+ * lets the search for the next bucket skip empty ones without looking at the bins.
+ *
+ * A small delta does little extra work but has few nodes to share between threads per bucket;
+ * a large delta has lots of parallelism but relaxes more edges more than once (delta = infinity
+ * is Bellman-Ford). Edge weights must be non-negative.
+ *
+ * The output has the same shape as Dijkstra.computeShortestPaths: one distance per node, and
+ * Integer.MAX_VALUE for nodes that can't be reached.
+ */
+
+package Graphs;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.AtomicIntArrays;
+import DataStructures.CSRGraph;
+import DataStructures.GraphFile;
+import DataStructures.MappedGraph;
+import DataStructures.ParallelGraphLoader;
+
+public class DeltaStepping {
+    private static final int SEQUENTIAL_FRONTIER = 256;    // smaller frontiers are not split
+    private static final int MAX_BUCKETS = 1024;
+
+    private final ForkJoinPool pool;
+    private final int nodes, delta, tasks;
+    private final int[] offsets;    // edges of a node: light ones first, then heavy ones
+    private final int[] lightEnd;   // end of the light edges of every node
+    private final int[] targets, weights;
+    private final Bin[][] bins;     // bins[task][bucket % buckets], null until first used
+    private final int[] filled;     // number of non-empty bins of every bucket % buckets
+    private final Bin[] overflow;   // nodes of every task more than buckets - 1 ahead
+    private final int[] overflowMin;    // lowest bucket in the overflow bin of every task
+    private final int buckets;
+
+    // Growable list of nodes that fell into one bucket
+    private static class Bin {
+        private int[] nodes = new int[16];
+        private int size;
+
+        private void add(int node) {
+            if (size == nodes.length) nodes = Arrays.copyOf(nodes, size * 2);
+            nodes[size++] = node;
+        }
+    }
+
+    public DeltaStepping(AdjacencyGraph graph) {
+        this(graph, 0, ForkJoinPool.commonPool());
+    }
+
+    // A delta of 0 picks the average edge weight
+    public DeltaStepping(AdjacencyGraph graph, int delta, ForkJoinPool pool) {
+        this.pool = pool;
+        this.nodes = graph.nodes();
+        this.tasks = pool.getParallelism() * 4;
+
+        offsets = new int[nodes + 2];
+        for (int node = 0; node <= nodes; node++) {
+            offsets[node + 1] = offsets[node] + graph.degree(node);
+        }
+        int edges = offsets[nodes + 1];
+        lightEnd = new int[nodes + 1];
+        targets = new int[edges];
+        weights = new int[edges];
+
+        // Copy the edges once to find the weights, in parallel over ranges of nodes
+        int chunks = tasks;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            AdjacencyGraph.Cursor cursor = graph.cursor();
+            for (int node = (int) ((long) chunk * (nodes + 1) / chunks); node < (long) (chunk + 1) * (nodes + 1) / chunks; node++) {
+                int edge = offsets[node];
+                cursor.reset(node);
+                while (cursor.next()) {
+                    if (cursor.weight() < 0) {
+                        throw new IllegalArgumentException("Delta-stepping needs non-negative edge weights");
+                    }
+                    targets[edge] = cursor.node();
+                    weights[edge++] = cursor.weight();
+                }
+            }
+        });
+        long total = 0;
+        int maxWeight = 0;
+        for (int weight : weights) {
+            total += weight;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        if (delta <= 0) delta = (int) Math.max(1, edges == 0 ? 1 : total / edges);
+        this.delta = delta;
+
+        // Move the light edges of every node in front of the heavy ones
+        int width = delta;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            for (int node = (int) ((long) chunk * (nodes + 1) / chunks); node < (long) (chunk + 1) * (nodes + 1) / chunks; node++) {
+                int light = offsets[node];
+                for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                    if (weights[edge] <= width) {
+                        int target = targets[edge], weight = weights[edge];
+                        targets[edge] = targets[light];
+                        weights[edge] = weights[light];
+                        targets[light] = target;
+                        weights[light++] = weight;
+                    }
+                }
+                lightEnd[node] = light;
+            }
+        });
+
+        buckets = Math.min(maxWeight / delta + 2, MAX_BUCKETS);
+        bins = new Bin[tasks][buckets];
+        filled = new int[buckets];
+        overflow = new Bin[tasks];
+        overflowMin = new int[tasks];
+        Arrays.fill(overflowMin, Integer.MAX_VALUE);
+    }
+
+    public int delta() {
+        return delta;
+    }
+
+    // Ouputs an array which contains the shortest paths from the source to all nodes
+    public int[] computeShortestPaths(int sourceNode) {
+        int[] distances = new int[nodes + 1];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        int[] queued = new int[nodes + 1];      // round in which a node was last put in the frontier
+        int[] finished = new int[nodes + 1];    // bucket + 1 in which a node was last processed
+        int round = 0;
+
+        distances[sourceNode] = 0;
+        add(0, 0, sourceNode);
+        int[] frontier = new int[16];
+        int[] processed = new int[16];
+
+        for (int current = nextBucket(0, distances); current != -1; current = nextBucket(current + 1, distances)) {
+            int count = 0;
+
+            // Relax light edges until the bucket stays empty
+            while (true) {
+                round++;
+                int size = 0;
+                int slot = current % buckets;
+                for (int task = 0; task < tasks; task++) {
+                    Bin bin = bins[task][slot];
+                    if (bin == null) continue;
+                    for (int i = 0; i < bin.size; i++) {
+                        int node = bin.nodes[i];
+                        // Skip duplicates and nodes that have since moved to a lower bucket
+                        if (queued[node] == round || distances[node] / delta != current) continue;
+                        queued[node] = round;
+                        if (size == frontier.length) frontier = Arrays.copyOf(frontier, size * 2);
+                        frontier[size++] = node;
+                        if (finished[node] != current + 1) {
+                            finished[node] = current + 1;
+                            if (count == processed.length) processed = Arrays.copyOf(processed, count * 2);
+                            processed[count++] = node;
+                        }
+                    }
+                    bin.size = 0;
+                }
+                filled[slot] = 0;
+                if (size == 0) break;
+                relax(frontier, size, distances, true, current);
+            }
+
+            // Heavy edges of every node of the bucket lead into later buckets
+            relax(processed, count, distances, false, current);
+        }
+        return distances;
+    }
+
+    // Append a node to the bin of a task for a bucket within the cyclic array
+    private void add(int task, int bucket, int node) {
+        int slot = bucket % buckets;
+        Bin bin = bins[task][slot];
+        if (bin == null) bin = bins[task][slot] = new Bin();
+        if (bin.size == 0) AtomicIntArrays.increment(filled, slot);
+        bin.add(node);
+    }
+
+    // Lowest bucket at or after the given one that has nodes in it, -1 if there is none.
+    // Every bucket before the given one must be empty.
+    private int nextBucket(int from, int[] distances) {
+        while (true) {
+            int lowest = Integer.MAX_VALUE;
+            for (int min : overflowMin) lowest = Math.min(lowest, min);
+            if (lowest < from + buckets) moveOverflow(from, distances);
+
+            for (int bucket = from; bucket < from + buckets; bucket++) {
+                if (filled[bucket % buckets] > 0) return bucket;
+            }
+            // The whole array is empty, so jump ahead to the overflow
+            if (lowest == Integer.MAX_VALUE) return -1;
+            from = lowest;
+        }
+    }
+
+    // Move the overflow nodes of buckets from ... from + buckets - 1 into the cyclic array.
+    // Nodes that have since moved to a lower bucket were added there again and are dropped.
+    private void moveOverflow(int from, int[] distances) {
+        for (int task = 0; task < tasks; task++) {
+            Bin bin = overflow[task];
+            if (bin == null || bin.size == 0) continue;
+            int kept = 0, min = Integer.MAX_VALUE;
+            for (int i = 0; i < bin.size; i++) {
+                int node = bin.nodes[i];
+                int bucket = distances[node] / delta;
+                if (bucket < from) continue;
+                if (bucket < from + buckets) {
+                    add(task, bucket, node);
+                } else {
+                    bin.nodes[kept++] = node;
+                    min = Math.min(min, bucket);
+                }
+            }
+            bin.size = kept;
+            overflowMin[task] = min;
+        }
+    }
+
+    // Relax the light or heavy edges of the given nodes of the current bucket, split between
+    // the tasks
+    private void relax(int[] list, int size, int[] distances, boolean light, int current) {
+        int split = size < SEQUENTIAL_FRONTIER ? 1 : tasks;
+        IntConsumer work = task -> {
+            for (int i = (int) ((long) task * size / split); i < (long) (task + 1) * size / split; i++) {
+                int node = list[i];
+                int distance = AtomicIntArrays.get(distances, node);
+                int first = light ? offsets[node] : lightEnd[node];
+                int end = light ? lightEnd[node] : offsets[node + 1];
+                for (int edge = first; edge < end; edge++) {
+                    int candidate = distance + weights[edge];
+                    if (AtomicIntArrays.minimize(distances, targets[edge], candidate)) {
+                        int bucket = candidate / delta;
+                        if (bucket - current < buckets) {
+                            add(task, bucket, targets[edge]);
+                        } else {
+                            if (overflow[task] == null) overflow[task] = new Bin();
+                            overflow[task].add(targets[edge]);
+                            overflowMin[task] = Math.min(overflowMin[task], bucket);
+                        }
+                    }
+                }
+            }
+        };
+        if (split == 1) {
+            work.accept(0);
+        } else {
+            pool.invoke(new Tasks(0, split, work));
+        }
+    }
+
+    // Runs the tasks from first to last - 1 by splitting the range in halves
+    private static class Tasks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int first, last;
+        private final IntConsumer work;
+
+        private Tasks(int first, int last, IntConsumer work) {
+            this.first = first;
+            this.last = last;
+            this.work = work;
+        }
+
+        protected void compute() {
+            if (last - first == 1) {
+                work.accept(first);
+            } else {
+                int middle = (first + last) >>> 1;
+                invokeAll(new Tasks(first, middle, work), new Tasks(middle, last, work));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        String filename = args.length > 0 ? args[0] : "Graphs/dijkstradata.txt";
+        int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int delta = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int sourceNode = 1;
+        try {
+            AdjacencyGraph graph = GraphFile.isBinary(filename)
+                    ? new MappedGraph(filename)
+                    : ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.ADJACENCY, nodes);
+            CSRGraph csr = (graph instanceof CSRGraph) ? (CSRGraph) graph : CSRGraph.from(graph);
+
+            DeltaStepping parallel = new DeltaStepping(csr, delta, ForkJoinPool.commonPool());
+            long start = System.currentTimeMillis();
+            int[] paths = parallel.computeShortestPaths(sourceNode);
+            long stop = System.currentTimeMillis();
+            System.out.println("Delta-stepping with delta " + parallel.delta() + " took: " + (stop - start) + " ms");
+
+            start = System.currentTimeMillis();
+            int[] expected = new Dijkstra(csr).computeShortestPaths(sourceNode);
+            stop = System.currentTimeMillis();
+            System.out.println("Dijkstra took: " + (stop - start) + " ms");
+            System.out.println("Results match: " + Arrays.equals(paths, expected));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -4,87 +4,326 @@
  * Running Time: O((m + n)log n)
  * 
  * Since the nodes are one-indexed, the program keeps the zeroth position empty for simplicity.
+ *
+ * The priority queue backend can be chosen with an IndexedPriorityQueue.Type, and defaults
+ * to a binary heap. AUTO looks at the edge weights: up to 2^16 a Dial bucket queue with one
+ * bucket per distance, O(m + nC), is used, beyond that a radix heap, O(m + n log C), and a
+ * binary heap if there are negative weights.
+ *
+ * The graph can be any AdjacencyGraph, e.g. a WeightedDirectedGraph or its CSRGraph
+ * conversion. A file converted with GraphFile is memory mapped, and a text file is parsed
+ * on all cores by ParallelGraphLoader. The demo can renumber the nodes with a
+ * VertexOrdering first (BFS, RCM or DEGREE as the third argument).
+ *
+ * One Dijkstra object can answer any number of queries. Its heap and arrays are reused, and
+ * instead of being reset they are stamped with the number of the query (epoch) that wrote
+ * them, so stale entries from earlier queries are simply ignored. A query only costs time
+ * for the nodes it reaches; search() and distance() avoid even the O(n) result array.
+ *
+ * Point-to-point (shortestPath) and target set (shortestPaths) queries stop as soon as their
+ * targets are settled, which is usually a small part of a large graph. Every query records
+ * the previous node on each shortest path, so path() can return the route itself.
+ *
+ * A query can also be driven one node at a time with begin() and settleNext(), which is how
+ * BidirectionalDijkstra interleaves a forward and a backward search. With a potential
+ * (setPotential) the search becomes A*, which ALT uses with landmark lower bounds.
  */
 package Graphs;
 
-import DataStructures.WeightedDirectedGraph;
-import DataStructures.WeightedDirectedGraph.Edge;
-import DataStructures.CustomHeap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.GraphFile;
+import DataStructures.MappedGraph;
+import DataStructures.ParallelGraphLoader;
+import DataStructures.IndexedPriorityQueue;
+import DataStructures.VertexOrdering;
 
 public class Dijkstra {
-    private WeightedDirectedGraph graph;
-    private CustomHeap heap;
-    private boolean[] marked;   // array to track explored nodes
-    private int[] paths;    // array to store shortest path from source node
+    private static final int BUCKET_LIMIT = 1 << 16;    // largest weight for Dial's buckets
+    private AdjacencyGraph graph;
+    private AdjacencyGraph.Cursor cursor;
+    private IndexedPriorityQueue heap;
+    private int[] reached;  // epoch of the last query that reached a node
+    private int[] settled;  // epoch of the last query that settled a node
+    private int[] targeted; // epoch of the last query that had a node as a target
+    private int[] paths;    // shortest path from the source, valid for nodes reached this epoch
+    private int[] parents;  // previous node on the shortest path, -1 for the source
+    private int epoch;      // number of the current query
+    private IntUnaryOperator potential;     // A* lower bound on the distance to the target
 
     // Constructor
     public Dijkstra(int nodes, String filename) {
-        graph = new WeightedDirectedGraph(nodes, filename);
-        heap = new CustomHeap(nodes);
-        marked = new boolean[nodes + 1];
-        paths = new int[nodes + 1];
+        this(nodes, filename, IndexedPriorityQueue.Type.BINARY);
+    }
+
+    public Dijkstra(int nodes, String filename, IndexedPriorityQueue.Type heapType) {
+        this(load(nodes, filename), heapType);
+    }
 
-        // Initialize default path length as Integer.MAX_VALUE
-        for (int i = 0; i <= nodes; i++) {
-            paths[i] = Integer.MAX_VALUE;
+    // Map the file if it was converted with GraphFile, otherwise parse the text format
+    private static AdjacencyGraph load(int nodes, String filename) {
+        if (GraphFile.isBinary(filename)) {
+            return new MappedGraph(filename);
+        }
+        try {
+            return ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.ADJACENCY, nodes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    public Dijkstra(WeightedDirectedGraph graph) {
+    public Dijkstra(AdjacencyGraph graph) {
+        this(graph, IndexedPriorityQueue.Type.BINARY);
+    }
+
+    public Dijkstra(AdjacencyGraph graph, IndexedPriorityQueue.Type heapType) {
         this.graph = graph;
+        cursor = graph.cursor();
         int nodes = graph.nodes();
-        heap = new CustomHeap(nodes);
-        marked = new boolean[nodes + 1];
+        int maxWeight = 0;
+        if (heapType == IndexedPriorityQueue.Type.AUTO || heapType == IndexedPriorityQueue.Type.BUCKET) {
+            maxWeight = maxWeight(graph);
+            if (heapType == IndexedPriorityQueue.Type.AUTO) heapType = queueFor(maxWeight);
+        }
+        heap = IndexedPriorityQueue.create(heapType, nodes, maxWeight);
+        reached = new int[nodes + 1];
+        settled = new int[nodes + 1];
+        targeted = new int[nodes + 1];
         paths = new int[nodes + 1];
+        parents = new int[nodes + 1];
+    }
 
-        // Initialize default path length as Integer.MAX_VALUE
-        for (int i = 0; i <= nodes; i++) {
-            paths[i] = Integer.MAX_VALUE;
+    // Largest edge weight of the graph, -1 if any weight is negative
+    private static int maxWeight(AdjacencyGraph graph) {
+        int max = 0;
+        AdjacencyGraph.Cursor edges = graph.cursor();
+        for (int node = 0; node <= graph.nodes(); node++) {
+            edges.reset(node);
+            while (edges.next()) {
+                if (edges.weight() < 0) return -1;
+                max = Math.max(max, edges.weight());
+            }
         }
+        return max;
     }
 
-    // Ouputs an array which contains positive shortest paths for all nodes
-    // Source node is labelled as 0
-    // If a path to a node does not exist, path length is set to be -1
-    public int[] computeShortestPaths(int sourceNode) {
-        // Set source's value as 0 in the heap
-        heap.decreaseKey(sourceNode, 0);
+    // Dial's buckets for small weights, a radix heap for larger ones, and a binary heap if
+    // negative weights rule out the monotone queues
+    private static IndexedPriorityQueue.Type queueFor(int maxWeight) {
+        if (maxWeight < 0) return IndexedPriorityQueue.Type.BINARY;
+        if (maxWeight <= BUCKET_LIMIT) return IndexedPriorityQueue.Type.BUCKET;
+        return IndexedPriorityQueue.Type.RADIX;
+    }
+
+    // Runs a query from the source node, reusing the buffers of earlier queries.
+    // Only nodes reached by this query are touched, so a query costs time in proportion to
+    // the part of the graph it explores. If target nodes are given, the search stops as
+    // soon as all of them are settled. Returns the number of settled nodes.
+    public int search(int sourceNode, int... targets) {
+        begin(sourceNode);
+        int count = 0;
 
-        while(!heap.isEmpty()){
-            // Extract minimum from the heap
-            int node = heap.peekMinNode();
-            int currentDistance = heap.extractMinKey();
+        // Count the distinct targets that still have to be settled
+        int remaining = 0;
+        for (int target : targets) {
+            if (targeted[target] != epoch) {
+                targeted[target] = epoch;
+                remaining++;
+            }
+        }
+
+        while(!isFinished()) {
+            int node = settleNext();
+            count++;
+
+            // Every target is final, the rest of the graph doesn't matter
+            if (targeted[node] == epoch && --remaining == 0) break;
+        }
+        return count;
+    }
+
+    // Start a new query from the source node, to be driven step by step with settleNext()
+    public void begin(int sourceNode) {
+        nextEpoch();
+
+        // Start with only the source in the heap, other nodes are inserted once reached
+        reached[sourceNode] = epoch;
+        paths[sourceNode] = 0;
+        parents[sourceNode] = -1;
+        heap.insertNode(sourceNode, key(sourceNode, 0));
+    }
+
+    // Turn the search into A*: nodes are keyed by distance + potential(node). The potential
+    // must be non-negative and consistent, i.e. potential(u) <= weight(u, v) + potential(v)
+    // for every edge, so that every node is still settled with its exact distance, e.g. a
+    // lower bound on the distance to the target. Since that makes every reduced weight
+    // non-negative, Johnson's -h(v) lets the search run on negative edge weights directly.
+    // null switches back to plain Dijkstra.
+    public void setPotential(IntUnaryOperator potential) {
+        this.potential = potential;
+    }
+
+    private int key(int node, int distance) {
+        return potential == null ? distance : distance + potential.applyAsInt(node);
+    }
+
+    // True once every node reachable from the source is settled
+    public boolean isFinished() {
+        return heap.isEmpty();
+    }
 
-            // Note the mininum Distance and mark node
-            paths[node] = currentDistance;
-            marked[node] = true;
+    // Key (distance plus potential) of the next node to be settled, Integer.MAX_VALUE if there is none
+    public int topKey() {
+        return heap.isEmpty() ? Integer.MAX_VALUE : heap.peekNode(heap.peekMinNode());
+    }
 
-            if(currentDistance == Integer.MAX_VALUE) continue;
+    // Settle the closest node in the heap, relax its edges and return it
+    public int settleNext() {
+        // Extract minimum from the heap and settle it
+        int node = heap.peekMinNode();
+        heap.extractMinKey();
+        int currentDistance = paths[node];
+        settled[node] = epoch;
 
-            for (Edge edge : graph.getEdgeList(node)){
-                if (!marked[edge.node()]) {
-                    // Update all the adjacent nodes with the new current shortest path
-                    heap.decreaseKey(edge.node(), edge.weight() + currentDistance);
-                }
+        cursor.reset(node);
+        while (cursor.next()) {
+            int next = cursor.node();
+            int distance = cursor.weight() + currentDistance;
+            if (reached[next] != epoch) {
+                // First path to this node in the current query
+                reached[next] = epoch;
+                paths[next] = distance;
+                parents[next] = node;
+                heap.insertNode(next, key(next, distance));
+            } else if (settled[next] != epoch && distance < paths[next]) {
+                // Update the adjacent node with the new current shortest path
+                paths[next] = distance;
+                parents[next] = node;
+                heap.decreaseKey(next, key(next, distance));
             }
         }
-        return paths;
+        return node;
+    }
+
+    // Shortest distance between two nodes, exploring only what is closer than the target
+    public int shortestPath(int sourceNode, int targetNode) {
+        search(sourceNode, targetNode);
+        return distance(targetNode);
+    }
+
+    // Shortest distances from the source to every given target, in the same order
+    public int[] shortestPaths(int sourceNode, int... targets) {
+        search(sourceNode, targets);
+        int[] result = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            result[i] = distance(targets[i]);
+        }
+        return result;
+    }
+
+    // Nodes on the shortest path from the source of the last query to a settled node,
+    // empty if the node wasn't settled
+    public int[] path(int node) {
+        if (settled[node] != epoch) return new int[0];
+        int length = 0;
+        for (int current = node; current != -1; current = parents[current]) {
+            length++;
+        }
+        int[] result = new int[length];
+        for (int current = node; current != -1; current = parents[current]) {
+            result[--length] = current;
+        }
+        return result;
+    }
+
+    // Invalidate the state of the previous query
+    private void nextEpoch() {
+        heap.clear();
+        if (++epoch == Integer.MAX_VALUE) {
+            // Stamps are about to repeat, start over from a clean state
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            Arrays.fill(targeted, 0);
+            epoch = 1;
+        }
+    }
+
+    // Shortest distance to a node settled by the last query, Integer.MAX_VALUE otherwise
+    public int distance(int node) {
+        return settled[node] == epoch ? paths[node] : Integer.MAX_VALUE;
+    }
+
+    // Best distance found so far to a node reached by the current query, which is final
+    // once the node is settled. Integer.MAX_VALUE if the node wasn't reached
+    public int tentativeDistance(int node) {
+        return reached[node] == epoch ? paths[node] : Integer.MAX_VALUE;
+    }
+
+    // Previous node on the best known path to a reached node, -1 for the source
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    // Ouputs an array which contains positive shortest paths for all nodes
+    // Source node is labelled as 0
+    // If a path to a node does not exist, path length is set to be Integer.MAX_VALUE
+    public int[] computeShortestPaths(int sourceNode) {
+        return computeShortestPaths(sourceNode, new int[graph.nodes() + 1]);
+    }
+
+    // Same as above, but writes the paths into the given array to avoid an allocation
+    public int[] computeShortestPaths(int sourceNode, int[] result) {
+        search(sourceNode);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = distance(i);
+        }
+        return result;
     }
 
     public static void main(String[] args) {
         int nodes = 200;
         int sourceNode = 1;
         String filename = "Graphs/dijkstradata.txt";
-        Dijkstra obj = new Dijkstra(nodes, filename);
+        IndexedPriorityQueue.Type heapType = IndexedPriorityQueue.Type.BINARY;
+        if (args.length > 0) heapType = IndexedPriorityQueue.Type.valueOf(args[0]);
+        if (args.length > 1) filename = args[1];
+
+        // Optionally renumber the nodes for cache locality and translate the paths back
+        AdjacencyGraph graph = load(nodes, filename);
+        VertexOrdering ordering = null;
+        if (args.length > 2) {
+            ordering = VertexOrdering.compute(graph, VertexOrdering.Strategy.valueOf(args[2]));
+            graph = ordering.relabel(graph);
+            sourceNode = ordering.toNew(sourceNode);
+        }
+        Dijkstra obj = new Dijkstra(graph, heapType);
         System.out.println("Heap size is: " + obj.heap.size());
 
+        long start = System.currentTimeMillis();
         int[] paths = obj.computeShortestPaths(sourceNode);
+        long stop = System.currentTimeMillis();
+        System.out.println("Computing the shortest paths took: " + (stop - start) + " ms");
+        if (ordering != null) paths = ordering.toOriginal(paths);
 
         int[] required = {7, 37, 59, 82, 99, 115, 133, 165, 188, 197};
         System.out.println("The required paths are: ");
         for(int index : required) {
             System.out.println(index + ": " + paths[index]);
         }
+
+        // Route to the last required node, stopping the search once it is settled
+        int target = required[required.length - 1];
+        if (ordering != null) target = ordering.toNew(target);
+        obj.shortestPath(sourceNode, target);
+        int[] route = obj.path(target);
+        if (ordering != null) {
+            for (int i = 0; i < route.length; i++) route[i] = ordering.toOld(route[i]);
+        }
+        System.out.println("Path to " + required[required.length - 1] + ": " + Arrays.toString(route));
     }
 
 }
@@ -0,0 +1,186 @@
+/*
+ * Program to implement the Floyd-Warshall all-pairs shortest path algorithm, blocked for
+ * the cache and run on all cores. It beats JohnsonAPSP's N Dijkstra runs on dense graphs,
+ * where the heap operations of Dijkstra cost more than FW's simple O(n^3) inner loop.
+ *
+ * The distances live in one flat row-major int[], padded to a multiple of the tile size so
+ * that every tile is full. For every block of B pivots k the matrix is updated in three
+ * phases, in dependency order:
+ *      1. the diagonal tile (k, k), which only depends on itself
+ *      2. the other tiles of row k and column k, which only depend on themselves and the
+ *         diagonal tile, all in parallel
+ *      3. every remaining tile (i, j), which only reads tile (i, k) and tile (k, j), all in
+ *         parallel
+ * A 64 x 64 tile is 16 KB, so the three tiles of an update fit in the L1/L2 cache. The
+ * innermost loop is a branch-free min over one contiguous row of a tile, against a copy of
+ * the pivot row so that it doesn't alias, which is the shape the JIT's auto-vectorizer
+ * turns into SIMD instructions.
+ *
+ * Unreachable pairs are kept at INFINITY = 2^30 - 1 instead of Integer.MAX_VALUE, so that
+ * the sum of two entries never overflows. A row whose pivot entry is unreachable is skipped
+ * entirely. Real distances must stay within +-2^29.
+ * A negative cycle shows up on the diagonal as soon as its largest node has been a pivot,
+ * i.e. in phase 1 of that node's block, so the diagonal tile is checked after phase 1 and
+ * the computation stops there. Before that no entry can run away, and only phase 1, where
+ * a cycle can be walked around again and again, needs to clamp its sums at -INFINITY.
+ *
+ * Running Time: O(n^3), memory: 4n^2 bytes, so n is limited to 46340 nodes
+ */
+
+package Graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.GraphFile;
+import DataStructures.MappedGraph;
+import DataStructures.ParallelGraphLoader;
+
+public class FloydWarshallAPSP {
+    private static final int TILE = 64;
+    private static final int INFINITY = (1 << 30) - 1;
+    private static final int UNREACHABLE = INFINITY / 2;    // anything above is no path
+
+    private int nodes, size, tiles;
+    private int[] distances;    // distances[(u - 1) * size + (v - 1)]
+
+    public FloydWarshallAPSP(AdjacencyGraph graph) {
+        nodes = graph.nodes();
+        tiles = (nodes + TILE - 1) / TILE;
+        size = tiles * TILE;
+        if ((long) size * size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Graph with " + nodes + " nodes is too large for a distance matrix");
+        }
+        distances = new int[size * size];
+        Arrays.fill(distances, INFINITY);
+
+        // Start from the edges, keeping the lightest of parallel edges
+        AdjacencyGraph.Cursor cursor = graph.cursor();
+        for (int u = 1; u <= nodes; u++) {
+            int row = (u - 1) * size;
+            distances[row + u - 1] = 0;
+            cursor.reset(u);
+            while (cursor.next()) {
+                int index = row + cursor.node() - 1;
+                distances[index] = Math.min(distances[index], cursor.weight());
+            }
+        }
+    }
+
+    // Returns false if the graph has a negative cycle
+    public boolean computeAllPaths() {
+        for (int pivot = 0; pivot < tiles; pivot++) {
+            int k = pivot;
+            update(k, k, k, true);
+            for (int v = k * TILE; v < Math.min(nodes, (k + 1) * TILE); v++) {
+                if (distances[v * size + v] < 0) return false;
+            }
+
+            // Row k and column k: tiles 0 .. tiles - 2 skip the diagonal tile
+            IntStream.range(0, 2 * (tiles - 1)).parallel().forEach(task -> {
+                int other = task % (tiles - 1);
+                if (other >= k) other++;
+                if (task < tiles - 1) {
+                    update(k, other, k, false);
+                } else {
+                    update(other, k, k, false);
+                }
+            });
+
+            // Every other tile
+            IntStream.range(0, (tiles - 1) * (tiles - 1)).parallel().forEach(task -> {
+                int i = task / (tiles - 1), j = task % (tiles - 1);
+                if (i >= k) i++;
+                if (j >= k) j++;
+                update(i, j, k, false);
+            });
+        }
+        return true;
+    }
+
+    // Relax tile (i, j) over the pivots of tile k, reading tiles (i, k) and (k, j)
+    private void update(int tileRow, int tileColumn, int tilePivot, boolean clamp) {
+        int[] d = distances;
+        int[] pivot = new int[TILE];
+        int firstRow = tileRow * TILE, firstColumn = tileColumn * TILE, firstPivot = tilePivot * TILE;
+        for (int k = firstPivot; k < firstPivot + TILE; k++) {
+            System.arraycopy(d, k * size + firstColumn, pivot, 0, TILE);
+            for (int i = firstRow; i < firstRow + TILE; i++) {
+                int throughPivot = d[i * size + k];
+                if (throughPivot > UNREACHABLE) continue;
+                int row = i * size + firstColumn;
+                if (clamp) {
+                    for (int j = 0; j < TILE; j++) {
+                        d[row + j] = Math.min(d[row + j], Math.max(throughPivot + pivot[j], -INFINITY));
+                    }
+                } else {
+                    for (int j = 0; j < TILE; j++) {
+                        d[row + j] = Math.min(d[row + j], throughPivot + pivot[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Shortest distance from u to v, Integer.MAX_VALUE if there is no path
+    public int distance(int u, int v) {
+        int distance = distances[(u - 1) * size + v - 1];
+        return distance > UNREACHABLE ? Integer.MAX_VALUE : distance;
+    }
+
+    // Hand every row to the consumer, in the same shape as JohnsonAPSP produces them
+    public void rows(PathConsumer consumer) {
+        int[] row = new int[nodes + 1];
+        row[0] = Integer.MAX_VALUE;
+        for (int u = 1; u <= nodes; u++) {
+            for (int v = 1; v <= nodes; v++) row[v] = distance(u, v);
+            consumer.accept(u, row);
+        }
+    }
+
+    // Smallest distance between two different nodes, Integer.MAX_VALUE if no node reaches
+    // another one (the same as JohnsonAPSP.shortest() and PathConsumer.MinMax.min())
+    public int shortest() {
+        int shortest = Integer.MAX_VALUE;
+        for (int u = 1; u <= nodes; u++) {
+            for (int v = 1; v <= nodes; v++) {
+                if (u != v) shortest = Math.min(shortest, distance(u, v));
+            }
+        }
+        return shortest;
+    }
+
+    public static void main(String[] args) {
+        String filename = args[0];
+        AdjacencyGraph graph;
+        try {
+            graph = GraphFile.isBinary(filename)
+                    ? new MappedGraph(filename)
+                    : ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.WEIGHTED, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("Selector picks: " + APSPSelector.choose(graph));
+
+        long start = System.currentTimeMillis();
+        FloydWarshallAPSP floydWarshall = new FloydWarshallAPSP(graph);
+        boolean valid = floydWarshall.computeAllPaths();
+        long stop = System.currentTimeMillis();
+        System.out.println("Floyd-Warshall took: " + (stop - start) + " ms");
+        if (!valid) {
+            System.out.println("Given graph has a negative cycle.");
+            return;
+        }
+
+        start = System.currentTimeMillis();
+        JohnsonAPSP johnson = new JohnsonAPSP(graph);
+        johnson.computeAllPaths();
+        johnson.processPaths();
+        stop = System.currentTimeMillis();
+        System.out.println("Johnson took: " + (stop - start) + " ms");
+        System.out.println("Smallest shortest path: " + floydWarshall.shortest() + ", Johnson: " + johnson.shortest());
+    }
+}
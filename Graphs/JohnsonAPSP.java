@@ -1,93 +1,139 @@
 package Graphs;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
-import DataStructures.WeightedDirectedGraph;
-import DataStructures.WeightedDirectedGraph.Edge;
+import DataStructures.AdjacencyGraph;
+import DataStructures.GraphFile;
+import DataStructures.IndexedPriorityQueue;
+import DataStructures.MappedGraph;
+import DataStructures.ParallelGraphLoader;
 import Graphs.BellmanFord.Result;
 
 public class JohnsonAPSP {
     
     private BellmanFord firstPass;
-    private Dijkstra dijkstra;
-    private WeightedDirectedGraph graph;
-    private int[] weights;
+    private AdjacencyGraph graph;
+    private int[] weights;      // potentials h(v) from Bellman-Ford
+    private BellmanFord.Cycle cycle;    // negative cycle that stopped computeAllPaths
     private int[][] paths;
     private int shortest, nodes;
 
     public JohnsonAPSP(String filename) {
+        this(load(filename));
+    }
 
-        graph = new WeightedDirectedGraph(filename);
-
+    public JohnsonAPSP(AdjacencyGraph graph) {
+        this.graph = graph;
         shortest = Integer.MAX_VALUE;
         nodes = graph.nodes();
-        paths = new int[nodes + 1][nodes + 1];
-        weights = new int[nodes + 1];
     }
 
-    private Result computeWeights() {
-        WeightedDirectedGraph newGraph = new WeightedDirectedGraph(nodes + 1);
-        List<Edge> newSource = new LinkedList<Edge>();
-        for(int i = 1; i <= nodes; i++) {
-            newSource.add(new Edge(i, 0));
-            newGraph.addEdgeList(graph.getEdgeList(i), i);
+    // A file converted with GraphFile is mapped, a text file is parsed on all cores
+    private static AdjacencyGraph load(String filename) {
+        if (GraphFile.isBinary(filename)) {
+            return new MappedGraph(filename);
+        }
+        try {
+            return ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.WEIGHTED, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        newGraph.addEdgeList(newSource, nodes + 1);
+    }
 
-        firstPass = new BellmanFord(newGraph);
-        Result result = firstPass.computeShortestPath(newGraph.nodes());
+    // Potentials h(v): distances from a virtual node with a zero-weight edge to every node.
+    // Bellman-Ford starts every node at distance 0 instead of adding that node to a copy of
+    // the graph.
+    private Result computeWeights() {
+        firstPass = new BellmanFord(graph);
+        Result result = firstPass.computePotentials(BellmanFord.Mode.PARALLEL);
+        if(!result.cycle()) weights = result.paths();
         return result;
     }
 
-    private WeightedDirectedGraph generateReweightedGraph(int[] weights) {
-        WeightedDirectedGraph newGraph = new WeightedDirectedGraph(graph.nodes());
-        for(int i = 1; i <= graph.nodes(); i++) {
-            List<Edge> newEdges = new LinkedList<Edge>();
-            for(Edge edge : graph.getEdgeList(i)) {
-                int weight = edge.weight() + weights[i] - weights[edge.node()];
-                newEdges.add(new Edge(edge.node(), weight));
-            }
-            newGraph.addEdgeList(newEdges, i);
-        }
-        return newGraph;
+    // Compute every row into an N x N matrix, read by processPaths
+    public boolean computeAllPaths() {
+        paths = new int[nodes + 1][nodes + 1];
+        return computeAllPaths((source, distances) -> System.arraycopy(distances, 0, paths[source], 0, nodes + 1));
     }
 
-    public boolean computeAllPaths() {
+    // Hand every source's row to the consumer as soon as it is computed.
+    // Nothing quadratic is kept, so memory stays O(N + M) apart from what the consumer keeps.
+    public boolean computeAllPaths(PathConsumer consumer) {
         Result firstPass = computeWeights();
         if(firstPass.cycle()) {
+            cycle = this.firstPass.negativeCycle();
             return false;
         }
 
-        WeightedDirectedGraph newGraph = generateReweightedGraph(weights);
-
-        for(int i = 1; i <= nodes; i++) {
-            dijkstra = new Dijkstra(newGraph);
-            paths[i] = dijkstra.computeShortestPaths(i);
-        }
+        // The sources are shared out on all cores. Every worker has its own engine and row,
+        // reusing its heap and arrays, and takes the next free source whenever it is done
+        // with one, so workers stuck with expensive sources don't hold up the others.
+        // Instead of a reweighted copy of the graph, the engines get the potential -h(v):
+        // keying a node by d(s, v) - h(v) orders the heap exactly like the reweighted
+        // distance d(s, v) + h(s) - h(v) would, while the distances stay the real ones.
+        int workers = Math.min(ForkJoinPool.getCommonPoolParallelism(), nodes);
+        AtomicInteger nextSource = new AtomicInteger(1);
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            Dijkstra dijkstra = new Dijkstra(graph, IndexedPriorityQueue.Type.AUTO);
+            dijkstra.setPotential(node -> -weights[node]);
+            int[] row = new int[nodes + 1];
+            for(int source = nextSource.getAndIncrement(); source <= nodes; source = nextSource.getAndIncrement()) {
+                consumer.accept(source, dijkstra.computeShortestPaths(source, row));
+            }
+        });
         return true;
     }
 
+    // The negative cycle found by computeAllPaths, null if there was none
+    public BellmanFord.Cycle negativeCycle() {
+        return cycle;
+    }
+
     public void processPaths() {
         int nodes = graph.nodes();
         for(int source = 1; source <= nodes; source++) {
             for(int dest = 1; dest <= nodes; dest++) {
-                if(paths[source][dest] != Integer.MAX_VALUE) {
-                    paths[source][dest] = paths[source][dest] - weights[source] + weights[dest];
-                }
-                if (paths[source][dest] < shortest) shortest = paths[source][dest];
+                if (source != dest && paths[source][dest] < shortest) shortest = paths[source][dest];
             }
         }
     }
 
+    // Smallest distance between two different nodes, once processPaths has run,
+    // Integer.MAX_VALUE if no node reaches another one
+    public int shortest() {
+        return shortest;
+    }
+
     public static void main(String[] args) {
         String filename = args[0];
         JohnsonAPSP obj = new JohnsonAPSP(filename);
-        if(!obj.computeAllPaths()) {
-            System.out.println("Given graph has a negative cycle.");
+        PathConsumer.MinMax range = new PathConsumer.MinMax();
+        boolean valid;
+
+        // With a second argument every row is also stored in a DistanceMatrixFile
+        if (args.length > 1) {
+            try (PathConsumer.RowWriter writer = new PathConsumer.RowWriter(args[1], obj.nodes)) {
+                valid = obj.computeAllPaths((source, distances) -> {
+                    range.accept(source, distances);
+                    writer.accept(source, distances);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            valid = obj.computeAllPaths(range);
+        }
+        if(!valid) {
+            BellmanFord.Cycle cycle = obj.negativeCycle();
+            System.out.println("Given graph has a negative cycle: " + Arrays.toString(cycle.nodes())
+                    + " with edge weights " + Arrays.toString(cycle.weights()) + ", total " + cycle.weight());
             return;
         }
-        obj.processPaths();
-        System.out.println("Smallest shortest path in given graph: " + obj.shortest);
+        System.out.println("Smallest shortest path in given graph: " + range.min());
     }
 }
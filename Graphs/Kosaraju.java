@@ -8,26 +8,36 @@
  * For large graphs (~1 million+ nodes), the major overhead will be loading the
  * graph into memory to operate on. This approach to load the entire graph into
  * memory will not work for gigantic graphs.
+ *
+ * Both passes accept any AdjacencyGraph, so a DirectedGraph can be converted into a
+ * more compact CSRGraph or CompressedGraph before running them, or renumbered with a
+ * VertexOrdering (BFS, RCM or DEGREE as the second argument) for better cache locality.
  */
 
 
 package Graphs;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.PriorityQueue;
 
+import DataStructures.AdjacencyGraph;
+import DataStructures.CSRGraph;
+import DataStructures.CompressedGraph;
 import DataStructures.DirectedGraph;
+import DataStructures.GraphFile;
+import DataStructures.MappedGraph;
+import DataStructures.VertexOrdering;
 
 public class Kosaraju {
     // First pass computes the ordering on the reversed input graph
-    public int[] firstPass(DirectedGraph inputGraph) {
+    public int[] firstPass(AdjacencyGraph inputGraph) {
         // Assume that the graph is already reversed
         int N = inputGraph.nodes();
         int currentTime = 1;
         int[] finishingTimes = new int[N];  // Array that keeps track of finishing times ordering
         ArrayDeque<Integer> stack = new ArrayDeque<>();
         boolean[] explored = new boolean[N];
+        AdjacencyGraph.Cursor cursor = inputGraph.cursor();
 
         // Run iterative Depth-First Search from the last node in the graph
         for (int i = N - 1; i > 0; i--) {
@@ -45,7 +55,7 @@ public class Kosaraju {
                         // Push newly explored node into the ordering stack
                         orderingStack.push(node);
                         // Push all the edges into main stack for DFS
-                        pushEdgesIntoStack(stack, inputGraph.getEdges(node));
+                        pushEdgesIntoStack(stack, cursor, node);
                     }
                 }
                 // Once DFS is finished, empty the ordering stack nodes into the finishing times array
@@ -59,11 +69,12 @@ public class Kosaraju {
     }
 
     // Second pass consumes the finishing time array returned above to run DFS on the original graph
-    public PriorityQueue<Integer> secondPass(int[] finishingTimes, DirectedGraph inputGraph) {
+    public PriorityQueue<Integer> secondPass(int[] finishingTimes, AdjacencyGraph inputGraph) {
         int topSCCNum = 5;  // number of SCCs to compute
         int nodes = inputGraph.nodes();
         ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
         boolean[] explored = new boolean[nodes];
+        AdjacencyGraph.Cursor cursor = inputGraph.cursor();
         PriorityQueue<Integer> leaders = new PriorityQueue<>(topSCCNum);    // Heap to store top 5 SCCs
 
         // Run DFS from the end of the finishing times array
@@ -78,7 +89,7 @@ public class Kosaraju {
                     if(!explored[node]) {   // Unexplored node
                         explored[node] = true;
                         currentSize++;
-                        pushEdgesIntoStack(stack, inputGraph.getEdges(node));  
+                        pushEdgesIntoStack(stack, cursor, node);  
                     }
                 }
                 if(leaders.size() > topSCCNum) {
@@ -94,19 +105,41 @@ public class Kosaraju {
     }
 
     // Function that pushes all outgoing edge nodes into the given stack
-    private void pushEdgesIntoStack(ArrayDeque<Integer> stack, ArrayList<Integer> edges) {
-        for(int node : edges) {
-            stack.push(node);
+    private void pushEdgesIntoStack(ArrayDeque<Integer> stack, AdjacencyGraph.Cursor cursor, int node) {
+        cursor.reset(node);
+        while(cursor.next()) {
+            stack.push(cursor.node());
         }
     }
     
     public static void main(String[] args) {
-        String filename = "scc.txt";
+        String filename = args.length > 0 ? args[0] : "scc.txt";
         int nodes = 875715;
         Kosaraju obj = new Kosaraju();
         
-        DirectedGraph inputGraph = new DirectedGraph(filename, nodes);
-        DirectedGraph reversedGraph = inputGraph.reverseGraph();
+        AdjacencyGraph inputGraph, reversedGraph;
+        if (GraphFile.isBinary(filename)) {
+            // Map a graph converted with GraphFile and build its reverse in CSR form
+            MappedGraph mapped = new MappedGraph(filename);
+            inputGraph = mapped;
+            reversedGraph = CSRGraph.transpose(mapped);
+        } else {
+            DirectedGraph directed = new DirectedGraph(filename, nodes);
+            inputGraph = directed;
+            reversedGraph = directed.inEdges();
+        }
+        if (args.length > 1 && args[1].equals("compressed")) {
+            // Trade some decoding time for a much smaller adjacency
+            inputGraph = CompressedGraph.from(inputGraph);
+            reversedGraph = CompressedGraph.from(reversedGraph);
+        } else if (args.length > 1) {
+            // Renumber nodes 1 ... N - 1 for cache locality, SCC sizes do not depend on IDs
+            VertexOrdering.Strategy strategy = VertexOrdering.Strategy.valueOf(args[1]);
+            VertexOrdering ordering = VertexOrdering.compute(inputGraph, strategy, 1, inputGraph.nodes() - 1);
+            CSRGraph relabelled = ordering.relabel(inputGraph);
+            inputGraph = relabelled;
+            reversedGraph = relabelled.inEdges();
+        }
         int[] finishingTimes = obj.firstPass(reversedGraph);
         PriorityQueue<Integer> leaders = obj.secondPass(finishingTimes, inputGraph);
         System.out.println(leaders);
@@ -0,0 +1,111 @@
+/*
+ * Receiver for the rows of an all-pairs shortest path computation, one source at a time,
+ * so that the results can be reduced or stored as they come instead of being held in an
+ * N x N matrix (see JohnsonAPSP.computeAllPaths(PathConsumer)).
+ *
+ * A row holds the distance from the source to every node, Integer.MAX_VALUE for nodes that
+ * can't be reached. The array belongs to the caller and is reused for the next source once
+ * accept() returns, so a consumer has to copy whatever it wants to keep. Rows of different
+ * sources may be handed over from several threads at once, and in no particular order.
+ *
+ * Consumers provided:
+ * MinMax       smallest and largest distance between two different nodes
+ * TopK         the K shortest distances between two different nodes
+ * RowWriter    every row stored in a DistanceMatrixFile, which can later be memory mapped
+ *              for random distance(u, v) lookups
+ */
+
+package Graphs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import DataStructures.DistanceMatrixFile;
+
+public interface PathConsumer {
+    void accept(int source, int[] distances);
+
+    public static class MinMax implements PathConsumer {
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        public void accept(int source, int[] distances) {
+            // Reduce the row first and only merge its result under the lock
+            int rowMin = Integer.MAX_VALUE, rowMax = Integer.MIN_VALUE;
+            for (int node = 1; node < distances.length; node++) {
+                int distance = distances[node];
+                if (node == source || distance == Integer.MAX_VALUE) continue;
+                if (distance < rowMin) rowMin = distance;
+                if (distance > rowMax) rowMax = distance;
+            }
+            synchronized (this) {
+                if (rowMin < min) min = rowMin;
+                if (rowMax > max) max = rowMax;
+            }
+        }
+
+        // Integer.MAX_VALUE if no node reaches another one
+        public synchronized int min() {
+            return min;
+        }
+
+        // Integer.MIN_VALUE if no node reaches another one
+        public synchronized int max() {
+            return max;
+        }
+    }
+
+    public static class TopK implements PathConsumer {
+        public record Path(int source, int target, int distance) {};
+
+        private final int k;
+        private final PriorityQueue<Path> longest;     // the K shortest so far, longest on top
+
+        public TopK(int k) {
+            if (k < 1) throw new IllegalArgumentException("K must be positive");
+            this.k = k;
+            longest = new PriorityQueue<>(k, Comparator.comparingInt(Path::distance).reversed());
+        }
+
+        public synchronized void accept(int source, int[] distances) {
+            for (int node = 1; node < distances.length; node++) {
+                int distance = distances[node];
+                if (node == source || distance == Integer.MAX_VALUE) continue;
+                if (longest.size() < k) {
+                    longest.add(new Path(source, node, distance));
+                } else if (distance < longest.peek().distance()) {
+                    longest.poll();
+                    longest.add(new Path(source, node, distance));
+                }
+            }
+        }
+
+        // The shortest paths found, shortest first
+        public synchronized List<Path> paths() {
+            List<Path> paths = new ArrayList<>(longest);
+            paths.sort(Comparator.comparingInt(Path::distance));
+            return paths;
+        }
+    }
+
+    public static class RowWriter implements PathConsumer, Closeable {
+        private final DistanceMatrixFile.Writer writer;
+
+        public RowWriter(String filename, int nodes) throws IOException {
+            writer = new DistanceMatrixFile.Writer(filename, nodes);
+        }
+
+        public void accept(int source, int[] distances) {
+            writer.writeRow(source, distances);
+        }
+
+        // Writes the row table, the file can't be opened before
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
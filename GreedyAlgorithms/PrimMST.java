@@ -1,22 +1,48 @@
 /*
  * Program to implement Prim's Minimum Spanning Trees algorithm using a
- * custom heap data structure to optimize running time.
+ * primitive indexed heap data structure to optimize running time.
+ *
+ * Edge costs are not extracted in non-decreasing order here, so every
+ * IndexedPriorityQueue backend except the monotone RADIX and BUCKET
+ * queues can be used.
  */
 
-import DataStructures.WeightedUndirectedGraph;
-import DataStructures.Edge;
-import DataStructures.CustomHeap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import DataStructures.AdjacencyGraph;
+import DataStructures.GraphFile;
+import DataStructures.IndexedPriorityQueue;
+import DataStructures.MappedGraph;
+import DataStructures.ParallelGraphLoader;
 
 public class PrimMST {
-    private WeightedUndirectedGraph graph;
-    private CustomHeap heap;
+    private AdjacencyGraph graph;
+    private IndexedPriorityQueue heap;
     private boolean[] marked; // array to track explored nodes
     
     // Constructor
     public PrimMST(String filename) {
-        graph = new WeightedUndirectedGraph(filename);
-        int nodes = graph.getNodes();
-        heap = new CustomHeap(nodes);
+        this(filename, IndexedPriorityQueue.Type.BINARY);
+    }
+
+    public PrimMST(String filename, IndexedPriorityQueue.Type heapType) {
+        if (heapType == IndexedPriorityQueue.Type.RADIX || heapType == IndexedPriorityQueue.Type.BUCKET
+                || heapType == IndexedPriorityQueue.Type.AUTO) {
+            throw new IllegalArgumentException("Prim's algorithm needs a non-monotone priority queue");
+        }
+        // A file converted with GraphFile is mapped, a text file is parsed on all cores
+        if (GraphFile.isBinary(filename)) {
+            graph = new MappedGraph(filename);
+        } else {
+            try {
+                graph = ParallelGraphLoader.load(filename, ParallelGraphLoader.Format.UNDIRECTED, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int nodes = graph.nodes();
+        heap = IndexedPriorityQueue.create(heapType, nodes);
         marked = new boolean[nodes + 1];
     }
 
@@ -25,6 +51,7 @@ public class PrimMST {
         // Set source's value as 0 in the heap
         heap.decreaseKey(sourceNode, 0);
         int treeCost = 0;
+        AdjacencyGraph.Cursor cursor = graph.cursor();
 
         while (!heap.isEmpty()) {
             // Extract minimum from the heap
@@ -34,10 +61,11 @@ public class PrimMST {
             // Mark node as explored
             marked[node] = true;
 
-            for (Edge edge : graph.getEdgeList(node)) {
-                if (!marked[edge.getNode()]) { // If edge isn't already explored
+            cursor.reset(node);
+            while (cursor.next()) {
+                if (!marked[cursor.node()]) { // If edge isn't already explored
                     // Update all the adjacent nodes with the new current lowest cost
-                    heap.decreaseKey(edge.getNode(), edge.getWeight());
+                    heap.decreaseKey(cursor.node(), cursor.weight());
                 }
             }
         }
@@ -47,7 +75,9 @@ public class PrimMST {
     public static void main(String[] args) {
         String filename = args[0];
         int sourceNode = 1;
-        PrimMST obj = new PrimMST(filename);
+        IndexedPriorityQueue.Type heapType = IndexedPriorityQueue.Type.BINARY;
+        if (args.length > 1) heapType = IndexedPriorityQueue.Type.valueOf(args[1]);
+        PrimMST obj = new PrimMST(filename, heapType);
         int treeCost = obj.computeMSTCost(sourceNode);
 
         System.out.println("The MST Cost is: " + treeCost);